@@ -0,0 +1,75 @@
+package inkball;
+
+import java.util.*;
+
+/**
+ * Builds the player-drawn lines used by the benchmarks.
+ */
+final class BenchmarkLines {
+
+    private BenchmarkLines() {
+    }
+
+    /**
+     * A random walk starting somewhere on the board, like a player's scribble.
+     *
+     * @param random   The random generator to use.
+     * @param segments The number of segments.
+     * @return The new line.
+     */
+    static Line scribble(Random random, int segments) {
+        return scribble(random, segments, 40, 104, 536, 600);
+    }
+
+    /**
+     * A random walk that stays inside the given rectangle.
+     *
+     * @param random   The random generator to use.
+     * @param segments The number of segments.
+     * @param min_x    The left edge of the rectangle.
+     * @param min_y    The top edge of the rectangle.
+     * @param max_x    The right edge of the rectangle.
+     * @param max_y    The bottom edge of the rectangle.
+     * @return The new line.
+     */
+    static Line scribble(Random random, int segments, int min_x, int min_y, int max_x, int max_y) {
+        Line line = new Line();
+        int x = min_x + random.nextInt(max_x - min_x + 1);
+        int y = min_y + random.nextInt(max_y - min_y + 1);
+        for (int i = 0; i < segments; i++) {
+            int nx = Math.max(min_x, Math.min(max_x, x + random.nextInt(21) - 10));
+            int ny = Math.max(min_y, Math.min(max_y, y + random.nextInt(21) - 10));
+            line.add_segment(x, y, nx, ny);
+            x = nx;
+            y = ny;
+        }
+        return line;
+    }
+
+    /**
+     * A single straight segment.
+     */
+    static Line straight(int x1, int y1, int x2, int y2) {
+        Line line = new Line();
+        line.add_segment(x1, y1, x2, y2);
+        return line;
+    }
+
+    /**
+     * A horizontal zigzag of 2 pixel steps around y, 10 pixels high.
+     *
+     * @param x        The x-coordinate to start at.
+     * @param y        The y-coordinate of the centre of the zigzag.
+     * @param segments The number of segments.
+     * @return The new line.
+     */
+    static Line zigzag(int x, int y, int segments) {
+        Line line = new Line();
+        for (int i = 0; i < segments; i++) {
+            int y1 = y + (i % 2 == 0 ? -5 : 5);
+            int y2 = y + (i % 2 == 0 ? 5 : -5);
+            line.add_segment(x + 2 * i, y1, x + 2 * i + 2, y2);
+        }
+        return line;
+    }
+}
@@ -0,0 +1,111 @@
+package inkball;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the per-ball collision routines and the eraser's line
+ * intersection test.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    private GameWorld world;
+    private Ball ball;
+    private Line hit_line;
+    private Line zigzag1;
+    private Line zigzag2;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        world = new GameWorld("config.json");
+        world.load_level();
+        world.get_balls().clear();
+        ball = new Ball(8, 8, '2', world);
+
+        // strokes spread over the board, which the line bounce has to look through.
+        Random random = new Random(1);
+        for (int i = 0; i < 50; i++) {
+            world.add_line(BenchmarkLines.scribble(random, 40));
+        }
+        hit_line = BenchmarkLines.straight(320, 96, 320, 320);
+
+        // two long zigzags whose bounding boxes overlap but which never cross,
+        // so the intersection test cannot stop early.
+        zigzag1 = BenchmarkLines.zigzag(20, 300, 270);
+        zigzag2 = BenchmarkLines.zigzag(20, 310, 270);
+    }
+
+    /**
+     * A ball moving into the wall on its left.
+     */
+    @Benchmark
+    public float wall_bounce() {
+        ball.ballSize = 24;
+        ball.set_x(33);
+        ball.set_y(64 + 5 * 32);
+        ball.set_speed_x(-2);
+        ball.set_speed_y(2);
+        ball.WallSweep(world.get_wall_field(), world);
+        return ball.get_speed_x();
+    }
+
+    /**
+     * A ball inside the attraction radius of a hole that is not yet captured.
+     */
+    @Benchmark
+    public float enter_hole() {
+        Hole hole = world.get_holes().get(0);
+        ball.ballSize = 24;
+        ball.set_x(hole.x + 32 - 12 + 20);
+        ball.set_y(hole.y + 32 - 12);
+        ball.set_speed_x(2);
+        ball.set_speed_y(2);
+        ball.enter_hole(world.get_hole_index(), world);
+        return ball.get_speed_x();
+    }
+
+    /**
+     * A ball checking the lines around it without hitting any.
+     */
+    @Benchmark
+    public float line_bounce_miss() {
+        ball.ballSize = 24;
+        ball.set_x(288);
+        ball.set_y(352);
+        ball.set_speed_x(2);
+        ball.set_speed_y(2);
+        ball.LineBounce(world.get_lines());
+        return ball.get_speed_x();
+    }
+
+    /**
+     * A ball hitting a line, which is removed and added back every time.
+     */
+    @Benchmark
+    public float line_bounce_hit() {
+        world.add_line(hit_line);
+        ball.ballSize = 24;
+        ball.set_x(300);
+        ball.set_y(192);
+        ball.set_speed_x(2);
+        ball.set_speed_y(0);
+        ball.LineBounce(world.get_lines());
+        return ball.get_speed_x();
+    }
+
+    /**
+     * Two long strokes that do not intersect.
+     */
+    @Benchmark
+    public boolean line_intersects() {
+        return zigzag1.intersects(zigzag2);
+    }
+}
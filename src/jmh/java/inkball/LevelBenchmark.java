@@ -0,0 +1,47 @@
+package inkball;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading a level, which happens on every start, restart and level
+ * change.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelBenchmark {
+
+    private GameWorld world;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        world = new GameWorld("config.json");
+        world.load_level();
+    }
+
+    /**
+     * Parses the config and reads the level layout.
+     */
+    @Benchmark
+    public GameWorld load_level() {
+        world.load_level();
+        return world;
+    }
+
+    /**
+     * Reads the level layout only.
+     */
+    @Benchmark
+    public Tile[][] read_level() {
+        world.readLevel("level1.txt");
+        world.get_balls().clear();
+        world.get_holes().clear();
+        world.get_spawner().clear();
+        return world.get_tiles();
+    }
+}
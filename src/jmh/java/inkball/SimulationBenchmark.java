@@ -0,0 +1,77 @@
+package inkball;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full simulation tick of the first level with a given number of
+ * balls and line segments on the board.
+ * The holes are removed so the ball count stays constant. Lines that balls
+ * bounce off are removed as in the game and added back after the tick, so the
+ * segment count stays constant too. The lines are kept in the open area at the
+ * bottom of the board, clear of the walls, so that no ball is pushed through
+ * a wall.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+
+    private static final int SEGMENTS_PER_LINE = 40;
+
+    @Param({ "10", "100", "1000" })
+    public int balls;
+
+    @Param({ "400", "4000" })
+    public int segments;
+
+    private GameWorld world;
+    private ArrayList<Line> strokes;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(1);
+        world = new GameWorld("config.json");
+        world.load_level();
+        world.get_holes().clear();
+        world.get_hole_index().build(world.get_holes());
+        world.get_candidates_balls().clear();
+        world.get_balls().clear();
+        world.set_time(Integer.MAX_VALUE);
+
+        Tile[][] tiles = world.get_tiles();
+        while (world.get_balls().size() < balls) {
+            int col = 1 + random.nextInt(App.Tile_SIZE - 2);
+            int row = 1 + random.nextInt(App.Tile_SIZE - 2);
+            if (!tiles[row][col].is_wall) {
+                world.get_balls().spawn(col, row, (char) ('0' + random.nextInt(5)), world);
+            }
+        }
+
+        strokes = new ArrayList<>();
+        for (int i = 0; i < segments / SEGMENTS_PER_LINE; i++) {
+            Line line = BenchmarkLines.scribble(random, SEGMENTS_PER_LINE, 96, 448, 480, 560);
+            strokes.add(line);
+            world.add_line(line);
+        }
+    }
+
+    @Benchmark
+    public GameWorld tick() {
+        world.tick();
+        LineList lines = world.get_lines();
+        if (lines.size() < strokes.size()) {
+            for (int i = 0; i < strokes.size(); i++) {
+                if (!lines.contains(strokes.get(i))) {
+                    lines.add(strokes.get(i));
+                }
+            }
+        }
+        return world;
+    }
+}
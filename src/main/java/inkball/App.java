@@ -1,1000 +1,773 @@
-/**
- * IMPORTANT NOTE FOR EXAMINERS AND USERS:
- * 
- * The game's speed is controlled by the 'timeScale' variable (line 46).
- * Due to performance variations across different computers, this value may need adjustment.
- * 
- * On the developer's laptop, a high value (100.0f) was necessary for smooth gameplay.
- * However, on more powerful systems, this may cause the game to run too quickly.
- * 
- * If you experience issues with game speed:
- * 1. Locate the 'timeScale' variable (currently on line 44).
- * 2. Adjust its value within the range of 1.0f to 100.0f.
- * 3. Lower values will slow down the game, higher values will speed it up.
- * 
- * Please adjust this value as needed to ensure a playable experience on your system.
- * The optimal setting may vary depending on your computer's performance.
- */
-
-package inkball;
-
-import processing.core.PApplet;
-import processing.core.PImage;
-import processing.data.JSONArray;
-import processing.data.JSONObject;
-import processing.event.KeyEvent;
-import processing.event.MouseEvent;
-
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-
-import java.io.*;
-import java.util.*;
-
-/**
- * The main application class for the Inkball game.
- * This class extends PApplet and handles the game logic, rendering, and user
- * interactions.
- */
-
-public class App extends PApplet {
-
-    // If you want to test, please change spawn_interval and FPS.
-
-    private float timeScale = 100.0f; // recommended value: 1.0f ~ 100.0f
-
-    // change the speed of the timer in candidate_timer.
-    // If the candidate_balls_timer or any other thing is too fast,
-    // please decrease the timeScale.
-
-    private int level_number = 0;// It should be (expected level number - 1).
-    // Please change the level number here.
-
-    public static final int CELLSIZE = 32; // 8;
-    public static final int CELLHEIGHT = 32;
-
-    public static final int CELLAVG = 32;
-    public static final int TOPBAR = 64;
-    public static int WIDTH = 640; // 576
-    public static int HEIGHT = 704; // 640
-    public static final int BOARD_WIDTH = WIDTH / CELLSIZE;
-    public static final int BOARD_HEIGHT = 20;
-
-    public static final int INITIAL_PARACHUTES = 1;
-
-    public static final int FPS = 30;// change it!
-
-    public static final int Tile_SIZE = 18;
-
-    public String configPath;
-
-    public static Random random = new Random();
-
-    private PImage initial_background;
-    private PImage last_background;
-    private float score = 0;
-    public Tile[][] board;
-    private ArrayList<Ball> balls;
-    private ArrayList<Ball> candidates_balls;
-    private ArrayList<Hole> holes;
-    private ArrayList<Spawner> spawners;
-
-    private HashMap<Character, Float> scoreFromHoleCapture;
-    private HashMap<Character, Float> scoreFromWrongHole;
-
-    public ArrayList<Line> Linelist;
-    public Line drawing_line;
-    public boolean is_drawing;
-
-    // timer
-
-    private int time;
-    private float spawn_interval;
-    private float spawn_timer;
-    private long last_time;
-
-    private float time_count;
-    private long last_time_count;
-    private long last_time_change_tile;
-
-    private PImage tileImage;
-    private PImage[] wallImages;
-    private PImage entrypointImage;
-    private PImage[] holeImages;
-    private PImage[] ballImages;
-
-    private boolean is_restarted;
-    private boolean is_paused;
-    private boolean is_lost;
-    private boolean is_game_ended = false;
-
-    private boolean is_won;
-
-    private boolean first_frame_flag = true;
-    private boolean first_frame_flag_last_background;
-
-    private int circular_tile[][];
-    private int circular_tile_size;
-
-    private String level_file;
-
-    private JSONArray levels;
-
-    private float scoreIncreaseFromHoleCaptureModifier;
-    private float scoreDecreaseFromWrongHoleModifier;
-
-    // Feel free to add any additional methods or attributes you want. Please put
-    // classes in different files.
-
-    /**
-     * Constructs an App instance with the default configuration file path.
-     */
-    public App() {
-        this.configPath = "config.json";
-    }
-
-    /**
-     * Initializes the window size settings for the game.
-     */
-    @Override
-    public void settings() {
-        size(WIDTH, HEIGHT);
-    }
-
-    /**
-     * Processes the JSON configuration file and initializes game settings.
-     * This method loads level data, time limits, scoring rules, and other game
-     * parameters.
-     */
-
-    public void processJsonFile() {
-        JSONObject config = loadJSONObject(configPath);
-        levels = config.getJSONArray("levels");
-        JSONObject level_n = levels.getJSONObject(level_number);
-        level_file = level_n.getString("layout");
-
-        time = level_n.getInt("time");
-
-        spawn_interval = level_n.getFloat("spawn_interval");
-        // spawn_interval = 0.1f;
-        spawn_timer = spawn_interval;
-
-        scoreIncreaseFromHoleCaptureModifier = level_n.getFloat("score_increase_from_hole_capture_modifier");
-        scoreDecreaseFromWrongHoleModifier = level_n.getFloat("score_decrease_from_wrong_hole_modifier");
-
-        scoreFromHoleCapture = new HashMap<>();
-        JSONObject increaseScores = config.getJSONObject("score_increase_from_hole_capture");
-        for (Object keyObj : increaseScores.keys()) {
-            String Key = keyObj.toString();
-            char typeChar = getBallTypeFromColor(Key);
-            int scoreInt = increaseScores.getInt(Key);
-            float scoreFloat = (float) scoreInt;
-            scoreFromHoleCapture.put(typeChar, scoreFloat);
-        }
-
-        scoreFromWrongHole = new HashMap<>();
-        JSONObject decreaseScores = config.getJSONObject("score_decrease_from_wrong_hole");
-        for (Object keyObj : decreaseScores.keys()) {
-            String key = keyObj.toString();
-            char typeChar = getBallTypeFromColor(key);
-            int scoreInt = decreaseScores.getInt(key);
-            float scoreFloat = (float) scoreInt;
-            scoreFromWrongHole.put(typeChar, scoreFloat);
-        }
-
-        JSONArray candidateBallColors = level_n.getJSONArray("balls");
-        int x_of_ball = 40;
-        for (int i = 0; i < candidateBallColors.size(); i++) {
-            String candidate_ballColor = candidateBallColors.getString(i);
-            char candidate_ballType = getBallTypeFromColor(candidate_ballColor);
-
-            Ball b = new Ball(0, 0, candidate_ballType, this);
-            b.set_x(x_of_ball);
-            b.set_y(20);
-            candidates_balls.add(b);
-            x_of_ball += CELLSIZE;
-
-        }
-    }
-
-    /**
-     * Converts a color string to the corresponding ball type character.
-     *
-     * @param color The color string to convert.
-     * @return The character representing the ball type.
-     */
-
-    private char getBallTypeFromColor(String color) {
-        switch (color.toLowerCase()) {
-            case "grey":
-                return '0';
-            case "orange":
-                return '1';
-            case "blue":
-                return '2';
-            case "green":
-                return '3';
-            case "yellow":
-            default:
-                return '4';
-        }
-    }
-
-    /**
-     * Reads the level layout from a file and initializes the game board.
-     *
-     * @param level_file The path to the level file.
-     */
-
-    public void readLevel(String level_file) {
-        try {
-            BufferedReader reader = new BufferedReader(new FileReader(level_file));
-            String line = reader.readLine();
-            int row1 = 0;
-            while (line != null) {
-                for (int col1 = 0; col1 < line.length(); col1++) {
-                    char tile_type = line.charAt(col1);
-                    Tile tile = new Tile(col1, row1, tile_type);
-                    board[row1][col1] = tile;
-
-                    if (tile_type == 'B') {
-                        Ball b = new Ball(col1, row1, line.charAt(col1 + 1), this);
-                        balls.add(b);
-                        Tile colorTile = new Tile(col1 + 1, row1, ' ');
-                        board[row1][col1 + 1] = colorTile;
-                        col1++;
-                    } else if (tile_type == 'H') {
-                        char holeType = line.charAt(col1 + 1);
-                        Hole h = new Hole(col1, row1, holeType);
-                        tile.set_hole();
-                        holes.add(h);
-                        Tile colorTile = new Tile(col1 + 1, row1, ' ');
-                        board[row1][col1 + 1] = colorTile;
-                        col1++;
-                    } else if (tile_type == 'S') {
-                        Spawner s = new Spawner(col1, row1, line.charAt(col1 + 1), this);
-                        tile.set_spawner();
-                        spawners.add(s);
-                        Tile colorTile = new Tile(col1 + 1, row1, ' ');
-                        board[row1][col1 + 1] = colorTile;
-                        col1++;
-                    } else if (tile_type == 'X' || tile_type == '1' || tile_type == '2' || tile_type == '3'
-                            || tile_type == '4') {
-                        tile.set_wall();
-                    }
-                }
-                row1++;
-                line = reader.readLine();
-            }
-            reader.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Sets up the game by initializing resources, game elements, and loading the
-     * first level.
-     */
-    @Override
-    public void setup() {
-        is_won = false;
-        is_lost = false;
-        is_game_ended = false;
-        frameRate(FPS);
-        board = new Tile[Tile_SIZE][Tile_SIZE];
-        balls = new ArrayList<>();
-        holes = new ArrayList<>();
-        spawners = new ArrayList<>();
-        candidates_balls = new ArrayList<>();
-
-        first_frame_flag_last_background = true;
-
-        last_time = millis();
-        last_time_count = millis();
-        last_time_change_tile = millis();
-
-        is_restarted = false;
-        is_paused = false;
-
-        if (first_frame_flag) {
-            initial_background = get();
-            first_frame_flag = false;
-        }
-
-        processJsonFile();
-        readLevel(level_file);
-
-        Linelist = new ArrayList<Line>();
-        is_drawing = false;
-
-        // We need to store x, y coordinates, that's why we need [2] here.
-        circular_tile = new int[68][2];
-        for (int i = 0; i < 18; i++) {
-            circular_tile[i][0] = 0;
-            circular_tile[i][1] = i;
-        }
-
-        // the most right edge.
-
-        int i1 = 1;
-        for (int i = 18; i < 35; i++) {
-            circular_tile[i][0] = i1;
-            circular_tile[i][1] = 17;
-            i1++;
-        }
-
-        // the most bottom edge.
-
-        int i2 = 16;
-        for (int i = 35; i < 52; i++) {
-            circular_tile[i][0] = 17;
-            circular_tile[i][1] = i2;
-            i2--;
-        }
-
-        // the most left edge.
-
-        int i3 = 16;
-        for (int i = 52; i < 68; i++) {
-            circular_tile[i][0] = i3;
-            circular_tile[i][1] = 0;
-            i3--;
-        }
-
-        tileImage = loadImage("inkball/tile.png");
-
-        wallImages = new PImage[5];
-        for (int i = 0; i < 5; i++) {
-            wallImages[i] = loadImage("inkball/wall" + i + ".png");
-        }
-
-        entrypointImage = loadImage("inkball/entrypoint.png");
-
-        holeImages = new PImage[5];
-        for (int i = 0; i < 5; i++) {
-            holeImages[i] = loadImage("inkball/hole" + i + ".png");
-        }
-
-        ballImages = new PImage[5];
-        for (int i = 0; i < 5; i++) {
-            ballImages[i] = loadImage("inkball/ball" + i + ".png");
-        }
-    }
-
-    /**
-     * Handles key press events.
-     *
-     * @param event The KeyEvent object containing information about the key press.
-     */
-    @Override
-    public void keyPressed(KeyEvent event) {
-        if (key == 'r') {
-            is_restarted = true;
-        } else if (key == ' ') {
-            is_paused = !is_paused;
-            if (!is_paused) {
-                redraw();
-            }
-        }
-    }
-
-    /**
-     * Removes lines that intersect with the currently drawing line.
-     * This method is used to clean up overlapping lines during drawing.
-     */
-
-    private void removeIntersectingLines() {
-        Iterator<Line> iterator = Linelist.iterator();
-        while (iterator.hasNext()) {
-            Line line = iterator.next();
-            if (line.intersects(drawing_line)) {
-                iterator.remove();
-            }
-        }
-    }
-
-    /**
-     * Handles key release events.
-     */
-    @Override
-    public void keyReleased() {
-
-    }
-
-    /**
-     * Handles mouse press events.
-     *
-     * @param e The MouseEvent object containing information about the mouse press.
-     */
-    @Override
-    public void mousePressed(MouseEvent e) {
-        // create a new player-drawn line object
-        if (!is_paused && !is_lost) {
-            is_drawing = true;
-            ArrayList<int[]> points = new ArrayList<>();
-            drawing_line = new Line(points);
-            // Notice that: it's previous x and y, current x and y.
-            drawing_line.points.add(new int[] { pmouseX, pmouseY, mouseX, mouseY });
-        }
-    }
-
-    /**
-     * Handles mouse drag events.
-     *
-     * @param e The MouseEvent object containing information about the mouse drag.
-     */
-
-    @Override
-    public void mouseDragged(MouseEvent e) {
-        // add line segments to player-drawn line object if left mouse button is held
-
-        // remove player-drawn line object if right mouse button is held
-        // and mouse position collides with the line
-        if (!is_paused && is_drawing && !is_lost) {
-            drawing_line.points.add(new int[] { pmouseX, pmouseY, mouseX, mouseY });
-            if (e.getButton() == RIGHT || (e.getButton() == LEFT && e.isControlDown())) {
-                removeIntersectingLines();
-            }
-        }
-    }
-
-    /**
-     * Handles mouse release events.
-     *
-     * @param e The MouseEvent object containing information about the mouse
-     *          release.
-     */
-
-    @Override
-    public void mouseReleased(MouseEvent e) {
-        if (!is_paused && is_drawing && !is_lost) {
-            is_drawing = false;
-            if (e.getButton() == LEFT && !e.isControlDown()) {
-                Linelist.add(drawing_line);
-            }
-            drawing_line = null;
-        }
-    }
-
-    /**
-     * Draws the game board, including walls, tiles, and other static elements.
-     */
-    public void drawBoard() {
-        for (int i = 0; i < Tile_SIZE; i++) {
-            for (int j = 0; j < Tile_SIZE; j++) {
-                Tile t = board[i][j];
-                if (t == null) {
-                    continue;
-                }
-                PImage imageToDraw = tileImage;
-                if (!t.is_ball && !t.is_hole) {
-                    if (t.get_type() == 'X') {
-                        imageToDraw = wallImages[0];
-                    } else if (t.get_type() == '1') {
-                        imageToDraw = wallImages[1];
-                    } else if (t.get_type() == '2') {
-                        imageToDraw = wallImages[2];
-                    } else if (t.get_type() == '3') {
-                        imageToDraw = wallImages[3];
-                    } else if (t.get_type() == '4') {
-                        imageToDraw = wallImages[4];
-                    } else if (t.get_type() == 'B') {
-                        Tile nextTile = board[i][j + 1];
-                        if (nextTile != null) {
-                            nextTile.set_ball();
-                        }
-                    } else if (t.get_type() == 'S') {
-                        imageToDraw = entrypointImage;
-                    }
-                }
-                image(imageToDraw, t.x, t.y);
-            }
-        }
-    }
-
-    /**
-     * Draws the holes on the game board.
-     */
-    public void drawHoles() {
-        for (Hole h : holes) {
-            char holeType = h.get_hole_type();
-            int index = holeType - '0';
-            if (index >= 0 && index < holeImages.length) {
-                image(holeImages[index], h.x, h.y);
-            }
-        }
-    }
-
-    /**
-     * Gets the image file name for a given ball type.
-     *
-     * @param type The character representing the ball type.
-     * @return The file name of the corresponding ball image.
-     */
-    public String getBallImageName(char type) {
-        switch (type) {
-            case '0':
-                return "inkball/ball0.png";
-            case '1':
-                return "inkball/ball1.png";
-            case '2':
-                return "inkball/ball2.png";
-            case '3':
-                return "inkball/ball3.png";
-            case '4':
-                return "inkball/ball4.png";
-            default:
-                return "inkball/ball0.png";
-        }
-    }
-
-    /**
-     * Draws and updates the balls on the game board.
-     */
-    public void drawBalls() {
-        Iterator<Ball> iterator = balls.iterator();
-        while (iterator.hasNext()) {
-            Ball b = iterator.next();
-            String ball_type = getBallImageName(b.type);
-            PImage ballImage = loadImage(ball_type);
-            image(ballImage, b.x, b.y);
-            b.move(this);
-            if (b.in_hole_flag) {
-                iterator.remove();
-            }
-        }
-    }
-
-    /**
-     * Loads and updates the top bar of the game screen.
-     */
-    public void loadTopBar() {
-        // initialize the top bar
-        image(initial_background, 0, 0);
-        fill(0);
-        textSize(15);
-        text("Score: " + String.format("%.1f", score), 480, 60);
-
-        text("Time: " + time, 480, 30);
-        // update the time
-        if (!is_paused && !is_lost) {
-            long current_time = millis();
-            last_time_count = millis();
-            if (current_time - last_time >= 1000) {
-                time--;
-                last_time = current_time;
-            }
-        }
-    }
-
-    /**
-     * Loads and displays the candidate balls at the top of the game screen.
-     */
-    public void load_candidates_balls() {
-        fill(0);
-        rect(10, 15, 165, 35);
-
-        fill(0);
-        textSize(20);
-
-        if (candidates_balls.size() > 0) {
-            text(String.format("%.1f", spawn_interval), 185, 38);
-            textSize(15);
-            if (!is_paused && !is_lost) {
-                long current_time = millis();
-                if (current_time - last_time_count >= 100 / timeScale) {
-                    spawn_interval -= 0.1f;
-                    if (spawn_interval <= 0.0f) {
-                        spawn_interval = spawn_timer;
-                        int spawn_index = random.nextInt(spawners.size());
-                        Spawner s = spawners.get(spawn_index);
-                        s.spawnBalls(balls, candidates_balls);
-                    }
-                    last_time_count = current_time;
-                }
-            }
-            /*
-             * float elapsed_time = (current_time - last_time_count) / 1000.0f;
-             * 
-             * time_count -= elapsed_time * timeScale;
-             * 
-             * if (time_count <= 0.0f) {
-             * time_count = spawn_interval;
-             * int spawn_index = random.nextInt(candidates_balls.size());
-             * Spawner s = spawners.get(spawn_index);
-             * s.spawnBalls(balls, candidates_balls);
-             * }
-             */
-
-            for (int i = 0; i < candidates_balls.size(); i++) {
-                Ball b = candidates_balls.get(i);
-                int targetX = (i * 32) + 10;
-
-                if (b.x > targetX) {
-                    b.set_speed_x(-1);
-                } else {
-                    b.set_speed_x(0);
-                }
-
-                b.x += b.speedX;
-
-                int ballIndex = b.type - '0';
-                if (ballIndex >= 0 && ballIndex < ballImages.length) {
-                    PImage ballImage = ballImages[ballIndex];
-
-                    int visible_start_x = Math.max(b.x, 10);
-                    int visible_end_x = Math.min(b.x + 32, 175);
-                    int visible_width = visible_end_x - visible_start_x;
-
-                    if (visible_width > 0) {
-                        int source_start_x = visible_start_x - b.x;
-                        image(ballImage, visible_start_x, b.y, visible_width, 32,
-                                source_start_x, 0, visible_width, 32);
-                    }
-                }
-
-                /*
-                 * String ball_type = getBallImageName(b.type);
-                 * int visible_start_x = b.x;
-                 * int visible_width = Math.min(b.x + 32, 165) - visible_start_x;
-                 * image(loadImage(ball_type), b.x, b.y, visible_width, 32,
-                 * 0, 0, visible_width, 32);
-                 */
-            }
-
-        }
-    }
-
-    /**
-     * Draws the player-drawn lines on the game board.
-     */
-    public void drawLines() {
-        for (Line line : Linelist) {
-            strokeWeight(10);
-            ArrayList<int[]> points = line.points;
-            for (int[] point : points) {
-                line((float) point[0], (float) point[1], (float) point[2], (float) point[3]);
-            }
-        }
-        if (is_drawing) {
-            strokeWeight(10);
-            for (int[] point : drawing_line.points) {
-                line((float) point[0], (float) point[1], (float) point[2], (float) point[3]);
-            }
-        }
-    }
-
-    /**
-     * Draws and updates the circular tile animation.
-     * This method is responsible for the rotating tile effect on the game board.
-     */
-    public void drawCircularTile() {
-        if (time <= 0) {
-            return;
-        }
-        int index1[] = circular_tile[circular_tile_size % 67];
-        int index2[] = circular_tile[(circular_tile_size + 34) % 67];
-
-        int xIndex1 = index1[1];
-        int yIndex1 = index1[0];
-        int xIndex2 = index2[1];
-        int yIndex2 = index2[0];
-
-        char original_tile_type = board[yIndex1][xIndex1].get_type();
-        char new_tile_type = board[yIndex2][xIndex2].get_type();
-
-        int x1 = xIndex1 * CELLSIZE;
-        int y1 = (yIndex1 * CELLSIZE) + 64;
-
-        int x2 = xIndex2 * CELLSIZE;
-        int y2 = (yIndex2 * CELLSIZE) + 64;
-
-        boolean change_tile = false;
-        image(wallImages[4], x1, y1);
-        image(wallImages[4], x2, y2);
-
-        long current_time = millis();
-
-        if (current_time - last_time_change_tile >= 67) {
-            circular_tile_size++;
-            time--;
-            score++;
-            last_time_change_tile = current_time;
-            change_tile = true;
-        }
-
-        if (change_tile) {
-            // change
-            Map<Character, PImage> image1 = new HashMap<>();
-            image1.put('1', wallImages[1]);
-            image1.put('2', wallImages[2]);
-            image1.put('3', wallImages[3]);
-            image1.put('4', wallImages[4]);
-            image1.put('X', wallImages[0]);
-
-            PImage image_to_draw = image1.get(original_tile_type);
-            PImage image_to_draw2 = image1.get(new_tile_type);
-
-            image(image_to_draw, x1, y1);
-            image(image_to_draw2, x2, y2);
-        }
-    }
-
-    /**
-     * Checks the game state based on time and ball count.
-     * This method determines if the player has won or lost the game.
-     */
-    public void time_check() {
-        if (balls.size() == 0 && candidates_balls.size() == 0) {
-            is_won = true;
-            is_lost = false;
-        } else if (time <= 0) {
-            is_lost = true;
-            is_won = false;
-        }
-    }
-
-    @Override
-    public void draw() {
-        if (is_restarted) {
-            restartGame();
-        } else if (is_game_ended) {
-            drawGameCompletedScreen();
-        } else if (is_won) {
-            drawWinScreen();
-        } else if (is_lost) {
-            drawLoseScreen();
-        } else if (is_paused) {
-            drawPausedScreen();
-        } else {
-            drawGame();
-        }
-        time_check();
-    }
-
-    /**
-     * Restarts the game by resetting all game states and calling setup.
-     */
-    private void restartGame() {
-        setup();
-        draw();
-        is_restarted = false;
-        is_won = false;
-        is_lost = false;
-        score = 0;
-    }
-
-    /**
-     * Draws the paused game screen, displaying a "PAUSED" message.
-     */
-    private void drawPausedScreen() {
-        is_drawing = false;
-        PImage pausedScreenshot = get();
-        image(pausedScreenshot, 0, 0);
-        fill(0);
-        textSize(24);
-        String pausedText = "*** PAUSED ***";
-        float textWidth = textWidth(pausedText);
-        text(pausedText, WIDTH / 2 - textWidth / 2, TOPBAR / 2 + 12);
-    }
-
-    /**
-     * Draws the win screen and handles level progression or game completion.
-     */
-    private void drawWinScreen() {
-        if (first_frame_flag_last_background) {
-            last_background = get();
-            first_frame_flag_last_background = false;
-        }
-        image(initial_background, 0, 0);
-        fill(0);
-        textSize(15);
-        text("Score: " + String.format("%.1f", score), 480, 60);
-        text("Time: " + time, 480, 30);
-        image(last_background, 0, 64, 576, 576, 0, 64, 576, 640);
-
-        if (time > 0) {
-            drawCircularTile();
-        } else {
-            if (level_number < levels.size() - 1 && is_won == true) {
-                level_number++;
-                is_won = false;
-                setup();
-                draw();
-            } else if (level_number >= levels.size() - 1 && is_won == true) {
-                is_won = false;
-                is_game_ended = true;
-                is_lost = false;
-            }
-            return;
-        }
-    }
-
-    /**
-     * Draws the game completed screen when all levels are finished.
-     */
-    private void drawGameCompletedScreen() {
-        fill(0);
-        textSize(24);
-        String pausedText = "=== ENDED ===";
-        float textWidth = textWidth(pausedText);
-        text(pausedText, WIDTH / 2 - textWidth / 2, TOPBAR / 2 + 12);
-    }
-
-    /**
-     * Draws the lose screen when the player runs out of time.
-     */
-    private void drawLoseScreen() {
-        is_drawing = false;
-        PImage pausedScreenshot = get();
-        image(pausedScreenshot, 0, 0);
-        fill(0);
-        textSize(24);
-        String pausedText = "=== TIME'S UP ===";
-        float textWidth = textWidth(pausedText);
-        text(pausedText, WIDTH / 2 - textWidth / 2, TOPBAR / 2 + 12);
-    }
-
-    /**
-     * Draws the main game screen, including all game elements.
-     */
-    private void drawGame() {
-        loadTopBar();
-        load_candidates_balls();
-        drawBoard();
-        drawHoles();
-        drawBalls();
-        drawLines();
-    }
-
-    /**
-     * Updates the circular tile animation and game time.
-     */
-    public void updateCircularTile() {
-        long current_time = millis();
-        if (current_time - last_time_change_tile >= 67) {
-            circular_tile_size++;
-            time--;
-            score++;
-            last_time_change_tile = current_time;
-        }
-    }
-
-    /**
-     * The main method to start the Inkball game.
-     *
-     * @param args Command line arguments (not used).
-     */
-    public static void main(String[] args) {
-        PApplet.main("inkball.App");
-    }
-
-    /**
-     * The getter and setter methods for the game state.
-     */
-    public int get_time() {
-        return this.time;
-    }
-
-    public ArrayList<Ball> get_balls() {
-        return this.balls;
-    }
-
-    public Tile[][] get_tiles() {
-        return this.board;
-    }
-
-    public float get_spawn_interval() {
-        return this.spawn_interval;
-    }
-
-    public ArrayList<Hole> get_holes() {
-        return this.holes;
-    }
-
-    public ArrayList<Line> get_lines() {
-        return this.Linelist;
-    }
-
-    public ArrayList<Spawner> get_spawner() {
-        return this.spawners;
-    }
-
-    public float get_score() {
-        return this.score;
-    }
-
-    public void set_score(float score) {
-        this.score += score;
-    }
-
-    public ArrayList<Ball> get_candidates_balls() {
-        return this.candidates_balls;
-    }
-
-    public float getScoreHoleCapture(char ballType) {
-        return scoreFromHoleCapture.get(ballType);
-    }
-
-    public float getScoreWrongHole(char ballType) {
-        return scoreFromWrongHole.get(ballType);
-    }
-
-    public boolean get_is_paused() {
-        return this.is_paused;
-    }
-
-    public boolean get_is_lost() {
-        return this.is_lost;
-    }
-
-    public void set_time(int time) {
-        this.time = time;
-    }
-
-    public float get_timeScale() {
-        return this.timeScale;
-    }
-
-    public boolean get_is_game_ended() {
-        return this.is_game_ended;
-    }
-
-    public void set_game_levels(JSONArray levels) {
-        this.levels = levels;
-    }
-
-    public JSONArray get_game_levels() {
-        return this.levels;
-    }
-
-    public int get_level_number() {
-        return this.level_number;
-    }
-
-    public void set_level_number(int level_number) {
-        this.level_number = level_number;
-    }
-
-    public int get_circular_tile_size() {
-        return this.circular_tile_size;
-    }
-
-    public void set_is_paused(boolean is_paused) {
-        this.is_paused = is_paused;
-    }
-
-    public void set_is_lost(boolean is_lost) {
-        this.is_lost = is_lost;
-    }
-
-    public void set_is_won(boolean is_won) {
-        this.is_won = is_won;
-    }
-
-    public boolean get_is_won() {
-        return this.is_won;
-    }
-
-    public float get_spawn_timer() {
-        return this.spawn_timer;
-    }
-
-    public float get_time_count() {
-        return this.time_count;
-    }
-
-    public float get_scoreIncreaseFromHoleCaptureModifier() {
-        return this.scoreIncreaseFromHoleCaptureModifier;
-    }
-
-    public float get_scoreDecreaseFromWrongHoleModifier() {
-        return this.scoreDecreaseFromWrongHoleModifier;
-    }
-
-    public App get_this() {
-        return this;
-    }
-
-}
+package inkball;
+
+import processing.core.PApplet;
+import processing.core.PImage;
+import processing.data.JSONArray;
+import processing.event.KeyEvent;
+import processing.event.MouseEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+import java.util.*;
+
+/**
+ * The main application class for the Inkball game.
+ * This class extends PApplet and handles rendering and user interactions. The
+ * game logic itself lives in a GameWorld, which draw() advances in fixed ticks
+ * so the game runs at the same speed whatever the frame rate.
+ */
+
+public class App extends PApplet {
+
+    // If you want to test, please change spawn_interval and FPS.
+
+    public static final int CELLSIZE = 32; // 8;
+    public static final int CELLHEIGHT = 32;
+
+    public static final int CELLAVG = 32;
+    public static final int TOPBAR = 64;
+    public static int WIDTH = 640; // 576
+    public static int HEIGHT = 704; // 640
+    public static final int BOARD_WIDTH = WIDTH / CELLSIZE;
+    public static final int BOARD_HEIGHT = 20;
+
+    public static final int INITIAL_PARACHUTES = 1;
+
+    public static final int FPS = 30;// change it!
+
+    // The longest frame the tick loop catches up on. Anything slower than this
+    // is dropped rather than simulated, so a stall cannot snowball.
+    public static final float MAX_FRAME_TIME = 0.25f;
+
+    public static final int Tile_SIZE = 18;
+
+    // The number of frames the frame metrics cover before they are dumped and
+    // reset. Run with -Dinkball.metrics=<directory> to dump them to disk.
+    public static final int METRICS_WINDOW = FPS * 10;
+
+    // Run with -Dinkball.replay=<file> to record the game to a replay file, and
+    // with -Dinkball.seed=<seed> to play a given seed.
+    public static final String REPLAY_PROPERTY = "inkball.replay";
+    public static final String SEED_PROPERTY = "inkball.seed";
+
+    public String configPath;
+
+    private GameWorld world;
+
+    private PImage initial_background;
+    public Tile[][] board;
+
+    public LineList Linelist;
+    private PlayerInput input;
+    // mouse events wait here until the start of the next frame.
+    private final InputQueue input_queue = new InputQueue();
+
+    // timer
+
+    private long last_frame_time;
+    private float tick_accumulator;
+    private float render_alpha;
+
+    private SpriteCache sprites;
+    private BoardLayer board_layer;
+
+    private FrameMetrics metrics;
+    private boolean show_metrics;
+
+    // reloads config.json when it is saved, so it can be tuned while playing.
+    private ConfigWatcher config_watcher;
+
+    private boolean is_restarted;
+
+    private boolean first_frame_flag = true;
+
+    // Feel free to add any additional methods or attributes you want. Please put
+    // classes in different files.
+
+    /**
+     * Constructs an App instance with the default configuration file path.
+     */
+    public App() {
+        this.configPath = "config.json";
+        String seed = System.getProperty(SEED_PROPERTY);
+        this.world = seed == null ? new GameWorld(configPath) : new GameWorld(configPath, Long.parseLong(seed));
+        String metrics_dir = System.getProperty("inkball.metrics");
+        this.metrics = new FrameMetrics(METRICS_WINDOW, metrics_dir == null ? null : new File(metrics_dir));
+
+        ReplayRecorder recorder = null;
+        String replay = System.getProperty(REPLAY_PROPERTY);
+        if (replay != null) {
+            try {
+                recorder = new ReplayRecorder(new File(replay), configPath, world.get_seed());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        this.input = new PlayerInput(world, recorder);
+    }
+
+    /**
+     * Initializes the window size settings for the game.
+     */
+    @Override
+    public void settings() {
+        size(WIDTH, HEIGHT);
+    }
+
+    /**
+     * Sets up the game by initializing resources, game elements, and loading the
+     * first level.
+     */
+    @Override
+    public void setup() {
+        frameRate(FPS);
+
+        last_frame_time = millis();
+        tick_accumulator = 0;
+        render_alpha = 0;
+
+        is_restarted = false;
+
+        if (first_frame_flag) {
+            initial_background = get();
+            first_frame_flag = false;
+        }
+
+        // Images are only loaded on the first setup; restarts and level changes
+        // reuse the cache.
+        if (sprites == null) {
+            sprites = new SpriteCache(this);
+            sprites.preload();
+            board_layer = new BoardLayer(this, sprites);
+            try {
+                config_watcher = new ConfigWatcher(configPath);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        world.load_level();
+        board = world.get_tiles();
+        board_layer.load(board);
+
+        Linelist = world.get_lines();
+        input.cancel();
+    }
+
+    /**
+     * Handles key press events.
+     *
+     * @param event The KeyEvent object containing information about the key press.
+     */
+    @Override
+    public void keyPressed(KeyEvent event) {
+        if (key == 'r') {
+            is_restarted = true;
+        } else if (key == 'm') {
+            show_metrics = !show_metrics;
+        } else if (key == ' ') {
+            input.toggle_pause();
+            if (!world.get_is_paused()) {
+                redraw();
+            }
+        }
+    }
+
+    /**
+     * Handles key release events.
+     */
+    @Override
+    public void keyReleased() {
+
+    }
+
+    /**
+     * Handles mouse press events. Mouse events are queued and applied to the
+     * game at the start of the next frame.
+     *
+     * @param e The MouseEvent object containing information about the mouse press.
+     */
+    @Override
+    public void mousePressed(MouseEvent e) {
+        // create a new player-drawn line object
+        input_queue.offer(ReplayRecorder.PRESS, pmouseX, pmouseY, mouseX, mouseY, false);
+    }
+
+    /**
+     * Handles mouse drag events.
+     *
+     * @param e The MouseEvent object containing information about the mouse drag.
+     */
+
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        // add line segments to player-drawn line object if left mouse button is held
+
+        // remove player-drawn line object if right mouse button is held
+        // and mouse position collides with the line
+        input_queue.offer(ReplayRecorder.DRAG, pmouseX, pmouseY, mouseX, mouseY,
+                e.getButton() == RIGHT || (e.getButton() == LEFT && e.isControlDown()));
+    }
+
+    /**
+     * Handles mouse release events.
+     *
+     * @param e The MouseEvent object containing information about the mouse
+     *          release.
+     */
+
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        input_queue.offer(ReplayRecorder.RELEASE, 0, 0, 0, 0, e.getButton() == LEFT && !e.isControlDown());
+    }
+
+    /**
+     * Draws the game board, including walls, tiles, and other static elements.
+     * The board is kept pre-rendered in the board layer, so this is a single
+     * image() call unless some cells changed since the last frame.
+     */
+    public void drawBoard() {
+        board_layer.draw();
+    }
+
+    /**
+     * Draws the holes on the game board.
+     */
+    public void drawHoles() {
+        for (Hole h : world.get_holes()) {
+            char holeType = h.get_hole_type();
+            int index = holeType - '0';
+            if (index >= 0 && index < SpriteCache.COLOURS) {
+                image(sprites.hole(index), h.x, h.y);
+            }
+        }
+    }
+
+    /**
+     * Draws the balls on the game board.
+     */
+    public void drawBalls() {
+        BallStore balls = world.get_balls();
+        for (int i = 0; i < balls.size(); i++) {
+            PImage ballImage = sprites.ball(balls.get_type(i));
+            float size = balls.get_size(i);
+            if (size == Ball.BALL_SIZE) {
+                image(ballImage, balls.get_render_x(i, render_alpha), balls.get_render_y(i, render_alpha));
+            } else {
+                // a ball shrinking into a hole is drawn around the same centre.
+                float inset = (Ball.BALL_SIZE - size) / 2;
+                image(ballImage, balls.get_render_x(i, render_alpha) + inset,
+                        balls.get_render_y(i, render_alpha) + inset, size, size);
+            }
+        }
+    }
+
+    /**
+     * Draws the top bar of the game screen.
+     */
+    public void loadTopBar() {
+        // initialize the top bar
+        image(initial_background, 0, 0);
+        fill(0);
+        textSize(15);
+        text("Score: " + String.format("%.1f", world.get_score()), 480, 60);
+
+        text("Time: " + world.get_time(), 480, 30);
+    }
+
+    /**
+     * Displays the candidate balls at the top of the game screen.
+     */
+    public void load_candidates_balls() {
+        ArrayList<Ball> candidates_balls = world.get_candidates_balls();
+        fill(0);
+        rect(10, 15, 165, 35);
+
+        fill(0);
+        textSize(20);
+
+        if (candidates_balls.size() > 0) {
+            text(String.format("%.1f", world.get_spawn_interval()), 185, 38);
+            textSize(15);
+
+            for (int i = 0; i < candidates_balls.size(); i++) {
+                Ball b = candidates_balls.get(i);
+
+                int ballIndex = b.type - '0';
+                if (ballIndex >= 0 && ballIndex < SpriteCache.COLOURS) {
+                    PImage ballImage = sprites.ball(ballIndex);
+
+                    int visible_start_x = Math.max(b.x, 10);
+                    int visible_end_x = Math.min(b.x + 32, 175);
+                    int visible_width = visible_end_x - visible_start_x;
+
+                    if (visible_width > 0) {
+                        int source_start_x = visible_start_x - b.x;
+                        image(ballImage, visible_start_x, b.y, visible_width, 32,
+                                source_start_x, 0, visible_width, 32);
+                    }
+                }
+            }
+
+        }
+    }
+
+    /**
+     * Draws the player-drawn lines on the game board.
+     */
+    public void drawLines() {
+        strokeWeight(10);
+        for (int i = 0; i < Linelist.size(); i++) {
+            drawSegments(Linelist.get(i));
+        }
+        if (input.get_is_drawing()) {
+            drawSegments(input.get_drawing_line());
+        }
+    }
+
+    /**
+     * Draws every segment of a line.
+     *
+     * @param line The line to draw.
+     */
+    private void drawSegments(Line line) {
+        int[] segments = line.get_segments();
+        for (int o = 0; o < line.get_segment_count() * 4; o += 4) {
+            line((float) segments[o], (float) segments[o + 1], (float) segments[o + 2], (float) segments[o + 3]);
+        }
+    }
+
+    /**
+     * Updates the circular tile animation.
+     * This method is responsible for the rotating tile effect on the game board,
+     * which it draws as overlays on the board layer.
+     */
+    public void drawCircularTile() {
+        if (world.get_time() <= 0) {
+            return;
+        }
+        int circular_tile[][] = world.get_circular_tile();
+        int circular_tile_size = world.get_circular_tile_size();
+        int index1[] = circular_tile[circular_tile_size % 67];
+        int index2[] = circular_tile[(circular_tile_size + 34) % 67];
+
+        int xIndex1 = index1[1];
+        int yIndex1 = index1[0];
+        int xIndex2 = index2[1];
+        int yIndex2 = index2[0];
+
+        board_layer.clear_overlays();
+        board_layer.set_overlay(yIndex1, xIndex1, sprites.wall(4));
+        board_layer.set_overlay(yIndex2, xIndex2, sprites.wall(4));
+    }
+
+    /**
+     * Checks the game state based on time and ball count.
+     * This method determines if the player has won or lost the game.
+     */
+    public void time_check() {
+        world.time_check();
+    }
+
+    /**
+     * Returns the time elapsed since the previous frame and starts timing the
+     * next one.
+     *
+     * @return The elapsed time in seconds.
+     */
+    private float frame_elapsed() {
+        long current_time = millis();
+        float elapsed = (current_time - last_frame_time) / 1000.0f;
+        last_frame_time = current_time;
+        return elapsed;
+    }
+
+    /**
+     * Runs as many fixed ticks of the world as fit in the time elapsed since the
+     * previous frame. The remainder is carried over to the next frame and kept as
+     * the interpolation factor used when drawing the balls. The cells of walls
+     * that broke during the ticks are marked to be drawn again.
+     */
+    private void run_ticks() {
+        tick_accumulator += Math.min(frame_elapsed(), MAX_FRAME_TIME);
+        while (tick_accumulator >= GameWorld.TICK) {
+            world.tick();
+            tick_accumulator -= GameWorld.TICK;
+        }
+        render_alpha = tick_accumulator / GameWorld.TICK;
+
+        // only the cells of walls that broke are drawn again.
+        ArrayList<Broken_Wall> broken_walls = world.get_broken_walls();
+        for (int i = 0; i < broken_walls.size(); i++) {
+            Broken_Wall wall = broken_walls.get(i);
+            board_layer.mark_dirty(wall.getGridY(), wall.getGridX());
+        }
+        broken_walls.clear();
+    }
+
+    /**
+     * Draws a frame. The mouse input queued since the last frame is applied
+     * first, so lines only change between ticks and never while the balls or
+     * the lines are being gone through.
+     */
+    @Override
+    public void draw() {
+        input_queue.drain(input);
+        if (is_restarted) {
+            restartGame();
+        } else if (world.get_is_game_ended()) {
+            drawGameCompletedScreen();
+        } else if (world.get_is_won()) {
+            drawWinScreen();
+        } else if (world.get_is_lost()) {
+            drawLoseScreen();
+        } else if (world.get_is_paused()) {
+            drawPausedScreen();
+        } else {
+            drawGame();
+        }
+        time_check();
+    }
+
+    /**
+     * Restarts the game by resetting all game states and calling setup.
+     */
+    private void restartGame() {
+        record(ReplayRecorder.RESTART);
+        setup();
+        world.reset_score();
+        draw();
+    }
+
+    /**
+     * Draws the paused game screen, displaying a "PAUSED" message.
+     */
+    private void drawPausedScreen() {
+        input.cancel();
+        frame_elapsed();
+        PImage pausedScreenshot = get();
+        image(pausedScreenshot, 0, 0);
+        fill(0);
+        textSize(24);
+        String pausedText = "*** PAUSED ***";
+        float textWidth = textWidth(pausedText);
+        text(pausedText, WIDTH / 2 - textWidth / 2, TOPBAR / 2 + 12);
+    }
+
+    /**
+     * Draws the win screen and handles level progression or game completion.
+     */
+    private void drawWinScreen() {
+        run_ticks();
+
+        image(initial_background, 0, 0);
+        fill(0);
+        textSize(15);
+        text("Score: " + String.format("%.1f", world.get_score()), 480, 60);
+        text("Time: " + world.get_time(), 480, 30);
+
+        if (world.get_time() > 0) {
+            drawCircularTile();
+            drawBoard();
+            drawHoles();
+            drawLines();
+        } else {
+            record(ReplayRecorder.ADVANCE);
+            if (world.advance_level()) {
+                setup();
+                draw();
+            }
+        }
+    }
+
+    /**
+     * Draws the game completed screen when all levels are finished.
+     */
+    private void drawGameCompletedScreen() {
+        fill(0);
+        textSize(24);
+        String pausedText = "=== ENDED ===";
+        float textWidth = textWidth(pausedText);
+        text(pausedText, WIDTH / 2 - textWidth / 2, TOPBAR / 2 + 12);
+    }
+
+    /**
+     * Draws the lose screen when the player runs out of time.
+     */
+    private void drawLoseScreen() {
+        input.cancel();
+        frame_elapsed();
+        PImage pausedScreenshot = get();
+        image(pausedScreenshot, 0, 0);
+        fill(0);
+        textSize(24);
+        String pausedText = "=== TIME'S UP ===";
+        float textWidth = textWidth(pausedText);
+        text(pausedText, WIDTH / 2 - textWidth / 2, TOPBAR / 2 + 12);
+    }
+
+    /**
+     * Draws the main game screen, including all game elements.
+     */
+    private void drawGame() {
+        metrics.begin_frame();
+
+        metrics.begin(FrameMetrics.TICKS);
+        run_ticks();
+        metrics.end(FrameMetrics.TICKS);
+
+        metrics.begin(FrameMetrics.TOP_BAR);
+        loadTopBar();
+        metrics.end(FrameMetrics.TOP_BAR);
+
+        metrics.begin(FrameMetrics.CANDIDATES);
+        load_candidates_balls();
+        metrics.end(FrameMetrics.CANDIDATES);
+
+        metrics.begin(FrameMetrics.BOARD);
+        drawBoard();
+        metrics.end(FrameMetrics.BOARD);
+
+        metrics.begin(FrameMetrics.HOLES);
+        drawHoles();
+        metrics.end(FrameMetrics.HOLES);
+
+        metrics.begin(FrameMetrics.BALLS);
+        drawBalls();
+        metrics.end(FrameMetrics.BALLS);
+
+        metrics.begin(FrameMetrics.LINES);
+        drawLines();
+        metrics.end(FrameMetrics.LINES);
+
+        metrics.end_frame(world.get_balls().size(), Linelist.size(), Linelist.get_segment_count());
+
+        if (show_metrics) {
+            drawMetrics();
+        }
+    }
+
+    /**
+     * Draws the frame metrics over the top left of the board: the last, 95th
+     * percentile and largest time of each phase in microseconds, followed by the
+     * counts, the allocation rate, the objects of each pool in use out of those
+     * it created and the sprite cache hits and misses.
+     */
+    private void drawMetrics() {
+        noStroke();
+        fill(0, 160);
+        rect(CELLSIZE, TOPBAR + CELLSIZE, 300, 14 * (FrameMetrics.PHASES + 5) + 6);
+        fill(255);
+        textSize(11);
+        int y = TOPBAR + CELLSIZE + 14;
+        text("phase  last / p95 / max (us)", CELLSIZE + 6, y);
+        for (int phase = 0; phase < FrameMetrics.PHASES; phase++) {
+            y += 14;
+            text(String.format("%s  %.0f / %.0f / %.0f", FrameMetrics.PHASE_NAMES[phase],
+                    metrics.get_last(phase) / 1000.0, metrics.percentile(phase, 0.95) / 1000.0,
+                    metrics.get_max(phase) / 1000.0), CELLSIZE + 6, y);
+        }
+        y += 14;
+        text("balls " + metrics.get_balls() + "  lines " + metrics.get_lines() + "  segments "
+                + metrics.get_segments(), CELLSIZE + 6, y);
+        y += 14;
+        text(String.format("alloc %.0f KB/s", metrics.allocation_rate() / 1024), CELLSIZE + 6, y);
+        y += 14;
+        text("pools  balls " + pool_usage(world.get_ball_pool()) + "  lines " + pool_usage(world.get_line_pool())
+                + "  tiles " + pool_usage(world.get_tile_pool()), CELLSIZE + 6, y);
+        y += 14;
+        text("sprites  hits " + sprites.get_hits() + "  misses " + sprites.get_misses(), CELLSIZE + 6, y);
+        stroke(0);
+    }
+
+    private static String pool_usage(ObjectPool<?> pool) {
+        return pool.get_in_use() + "/" + pool.get_created();
+    }
+
+    /**
+     * Records a change of level made by the sketch rather than the player, so a
+     * replay makes it at the same tick.
+     *
+     * @param type The type of the replay event.
+     */
+    private void record(int type) {
+        if (input.get_recorder() != null) {
+            input.get_recorder().event(world.get_tick_count(), type);
+        }
+    }
+
+    /**
+     * Finishes the replay recording, if any, and stops watching the
+     * configuration when the sketch is closed.
+     */
+    @Override
+    public void dispose() {
+        if (input.get_recorder() != null) {
+            input.get_recorder().finish(world.get_tick_count());
+        }
+        if (config_watcher != null) {
+            config_watcher.close();
+        }
+        super.dispose();
+    }
+
+    /**
+     * The main method to start the Inkball game.
+     *
+     * @param args Command line arguments (not used).
+     */
+    public static void main(String[] args) {
+        PApplet.main("inkball.App");
+    }
+
+    /**
+     * The getter and setter methods for the game state.
+     */
+    public GameWorld get_world() {
+        return this.world;
+    }
+
+    public SpriteCache get_sprites() {
+        return this.sprites;
+    }
+
+    public BoardLayer get_board_layer() {
+        return this.board_layer;
+    }
+
+    public FrameMetrics get_metrics() {
+        return this.metrics;
+    }
+
+    public InputQueue get_input_queue() {
+        return this.input_queue;
+    }
+
+    public PlayerInput get_input() {
+        return this.input;
+    }
+
+    public int get_time() {
+        return world.get_time();
+    }
+
+    public BallStore get_balls() {
+        return world.get_balls();
+    }
+
+    public Tile[][] get_tiles() {
+        return world.get_tiles();
+    }
+
+    public float get_spawn_interval() {
+        return world.get_spawn_interval();
+    }
+
+    public ArrayList<Hole> get_holes() {
+        return world.get_holes();
+    }
+
+    public LineList get_lines() {
+        return world.get_lines();
+    }
+
+    public ArrayList<Spawner> get_spawner() {
+        return world.get_spawner();
+    }
+
+    public float get_score() {
+        return world.get_score();
+    }
+
+    public void set_score(float score) {
+        world.set_score(score);
+    }
+
+    public ArrayList<Ball> get_candidates_balls() {
+        return world.get_candidates_balls();
+    }
+
+    public float getScoreHoleCapture(char ballType) {
+        return world.getScoreHoleCapture(ballType);
+    }
+
+    public float getScoreWrongHole(char ballType) {
+        return world.getScoreWrongHole(ballType);
+    }
+
+    public boolean get_is_paused() {
+        return world.get_is_paused();
+    }
+
+    public boolean get_is_lost() {
+        return world.get_is_lost();
+    }
+
+    public void set_time(int time) {
+        world.set_time(time);
+    }
+
+    public boolean get_is_game_ended() {
+        return world.get_is_game_ended();
+    }
+
+    public void set_game_levels(JSONArray levels) {
+        world.set_game_levels(levels);
+    }
+
+    public JSONArray get_game_levels() {
+        return world.get_game_levels();
+    }
+
+    public int get_level_number() {
+        return world.get_level_number();
+    }
+
+    public void set_level_number(int level_number) {
+        world.set_level_number(level_number);
+    }
+
+    public int get_circular_tile_size() {
+        return world.get_circular_tile_size();
+    }
+
+    public void set_is_paused(boolean is_paused) {
+        world.set_is_paused(is_paused);
+    }
+
+    public void set_is_lost(boolean is_lost) {
+        world.set_is_lost(is_lost);
+    }
+
+    public void set_is_won(boolean is_won) {
+        world.set_is_won(is_won);
+    }
+
+    public boolean get_is_won() {
+        return world.get_is_won();
+    }
+
+    public float get_spawn_timer() {
+        return world.get_spawn_timer();
+    }
+
+    public float get_time_count() {
+        return world.get_time_count();
+    }
+
+    public float get_scoreIncreaseFromHoleCaptureModifier() {
+        return world.get_scoreIncreaseFromHoleCaptureModifier();
+    }
+
+    public float get_scoreDecreaseFromWrongHoleModifier() {
+        return world.get_scoreDecreaseFromWrongHoleModifier();
+    }
+
+    public App get_this() {
+        return this;
+    }
+
+}
@@ -1,417 +1,819 @@
-package inkball;
-
-import java.util.*;
-import processing.core.PVector;
-
-/**
- * Represents a ball in the Inkball game.
- * This class extends the Sprite class and handles ball movement, collision, and
- * scoring.
- */
-
-public class Ball extends Sprite {
-
-    private App app;
-    protected float speedX;
-    protected float speedY;
-    public Random random = new Random();
-    public float ballSize = 24; // You could check it through the "property" of the picture.
-    public int const_speed[] = { 2, -2 };
-
-    private float increase_score;
-    private float decrease_score;
-
-    public boolean in_hole_flag;
-
-    /**
-     * Constructs a new Ball object.
-     *
-     * @param index_x The initial x-index of the ball on the game grid.
-     * @param index_y The initial y-index of the ball on the game grid.
-     * @param type    The type (color) of the ball.
-     * @param app     The main App instance for accessing game state and methods.
-     */
-
-    public Ball(int index_x, int index_y, char type, App app) {
-        super(index_x, index_y, type);
-        this.speedX = const_speed[random.nextInt(const_speed.length)];
-        this.speedY = const_speed[random.nextInt(const_speed.length)];
-        this.in_hole_flag = false;
-        this.increase_score = app.getScoreHoleCapture(type);
-        this.decrease_score = app.getScoreWrongHole(type);
-    }
-
-    /**
-     * Sets the ball's score values based on its type.
-     *
-     * @param app  The main App instance for accessing scoring methods.
-     * @param type The type (color) of the ball.
-     */
-    public void set_ball_score(App app, char type) {
-        this.app = app;
-        if (app != null) {
-            this.increase_score = app.getScoreHoleCapture(type);
-            this.decrease_score = app.getScoreWrongHole(type);
-        }
-    }
-
-    /**
-     * Handles ball collision with walls and updates ball properties accordingly.
-     *
-     * @param tiles The 2D array of tiles representing the game board.
-     * @param app   The main App instance for accessing game state and methods.
-     */
-    public void WallBounce(Tile[][] tiles, App app) {
-        int ball_up = this.y;
-        int ball_down = this.y + 24;
-        int ball_left = this.x;
-        int ball_right = this.x + 24;
-
-        int ball_col = X_pixel_to_index(x);
-        int ball_row = Y_pixel_to_index(y);
-
-        Tile up_tile = tiles[ball_row - 1][ball_col];
-
-        if (up_tile.is_wall) {
-            if (ball_up <= up_tile.y + 24 && speedY < 0) {
-                speedY = -speedY;
-                if (up_tile.get_type() != 'X') {
-                    this.type = up_tile.get_type();
-                    this.increase_score = app.getScoreHoleCapture(up_tile.get_type());
-                    this.decrease_score = app.getScoreWrongHole(up_tile.get_type());
-                }
-            }
-        }
-
-        Tile left_tile = tiles[ball_row][ball_col - 1];
-
-        if (left_tile.is_wall) {
-            if (ball_left <= left_tile.x + 24 && speedX < 0) {
-                speedX = -speedX;
-                if (left_tile != null && left_tile.get_type() != 'X') {
-                    this.type = left_tile.get_type();
-                    this.increase_score = app.getScoreHoleCapture(left_tile.get_type());
-                    this.decrease_score = app.getScoreWrongHole(left_tile.get_type());
-                }
-            }
-        }
-
-        Tile right_tile = tiles[ball_row][ball_col + 1];
-
-        if (right_tile.is_wall) {
-            if (ball_right >= right_tile.x && speedX > 0) {
-                speedX = -speedX;
-                if (right_tile != null && right_tile.get_type() != 'X') {
-                    this.type = right_tile.get_type();
-                    this.increase_score = app.getScoreHoleCapture(right_tile.get_type());
-                    this.decrease_score = app.getScoreWrongHole(right_tile.get_type());
-                }
-            }
-        }
-
-        Tile down_tile = tiles[ball_row + 1][ball_col];
-
-        if (down_tile.is_wall) {
-            if (ball_down >= down_tile.y && speedY > 0) {
-                speedY = -speedY;
-                if (down_tile != null && down_tile.get_type() != 'X') {
-                    this.type = down_tile.get_type();
-                    this.increase_score = app.getScoreHoleCapture(down_tile.get_type());
-                    this.decrease_score = app.getScoreWrongHole(down_tile.get_type());
-                }
-            }
-        }
-
-        Tile left_down_tile = tiles[ball_row + 1][ball_col - 1];
-        if (left_down_tile.is_wall) {
-            if (ball_left <= left_down_tile.x + 24 && ball_down >= left_down_tile.y && speedX < 0 && speedY > 0) {
-                speedX = -speedX;
-                speedY = -speedY;
-                if (left_down_tile != null && left_down_tile.get_type() != 'X') {
-                    this.type = left_down_tile.get_type();
-                    this.increase_score = app.getScoreHoleCapture(left_down_tile.get_type());
-                    this.decrease_score = app.getScoreWrongHole(left_down_tile.get_type());
-                }
-            }
-        }
-
-        Tile right_down_tile = tiles[ball_row + 1][ball_col + 1];
-        if (right_down_tile.is_wall) {
-            if (ball_right >= right_down_tile.x && ball_down >= right_down_tile.y && speedX > 0 && speedY > 0) {
-                speedX = -speedX;
-                speedY = -speedY;
-                if (right_down_tile != null && right_down_tile.get_type() != 'X') {
-                    this.type = right_down_tile.get_type();
-                    this.increase_score = app.getScoreHoleCapture(right_down_tile.get_type());
-                    this.decrease_score = app.getScoreWrongHole(right_down_tile.get_type());
-                }
-            }
-        }
-
-        Tile left_up_tile = tiles[ball_row - 1][ball_col - 1];
-        if (left_up_tile.is_wall) {
-            if (ball_left <= left_up_tile.x + 24 && ball_up <= left_up_tile.y + 24 && speedX < 0 && speedY < 0) {
-                speedX = -speedX;
-                speedY = -speedY;
-                if (left_up_tile != null && left_up_tile.get_type() != 'X') {
-                    this.type = left_up_tile.get_type();
-                    this.increase_score = app.getScoreHoleCapture(left_up_tile.get_type());
-                    this.decrease_score = app.getScoreWrongHole(left_up_tile.get_type());
-                }
-            }
-        }
-
-        Tile right_up_tile = tiles[ball_row - 1][ball_col + 1];
-        if (right_up_tile.is_wall) {
-            if (ball_right >= right_up_tile.x && ball_up <= right_up_tile.y + 24 && speedX > 0 && speedY < 0) {
-                speedX = -speedX;
-                speedY = -speedY;
-                if (right_up_tile != null && right_up_tile.get_type() != 'X') {
-                    this.type = right_up_tile.get_type();
-                    this.increase_score = app.getScoreHoleCapture(right_up_tile.get_type());
-                    this.decrease_score = app.getScoreWrongHole(right_up_tile.get_type());
-                }
-            }
-        }
-    }
-
-    /**
-     * Checks if the ball has entered a hole and updates game state accordingly.
-     *
-     * @param holes The list of holes on the game board.
-     * @param app   The main App instance for updating game state.
-     */
-    public void enter_hole(ArrayList<Hole> holes, App app) {
-        double ball_center_x = this.x + ballSize / 2;
-        double ball_center_y = this.y + ballSize / 2;
-
-        for (Hole hole : holes) {
-            double hole_center_x = hole.x + 32;
-            double hole_center_y = hole.y + 32;
-
-            double distance = Math
-                    .sqrt(Math.pow(hole_center_x - ball_center_x, 2) + Math.pow(hole_center_y - ball_center_y, 2));
-            if (distance < 32) {
-                speedX += (hole_center_x - ball_center_x) * 0.0065;
-                speedY += (hole_center_y - ball_center_y) * 0.0065;
-
-                this.ballSize *= 0.8;
-                if (distance < 15) {
-                    this.ballSize *= 0.725;
-                    if (this.ballSize <= 0.1 || distance < 1) {
-                        this.in_hole_flag = true;
-                        update_the_score(hole, app);
-                        this.ballSize = 0;
-                        return;
-                    }
-                }
-            }
-        }
-    }
-
-    /**
-     * Updates the game score when a ball enters a hole.
-     *
-     * @param hole The hole that the ball entered.
-     * @param app  The main App instance for updating the score.
-     */
-    public void update_the_score(Hole hole, App app) {
-        float update_score = 0;
-        float increaseModifier = app.get_scoreIncreaseFromHoleCaptureModifier();
-        float decreaseModifier = app.get_scoreDecreaseFromWrongHoleModifier();
-
-        if (this.type == hole.get_hole_type() || hole.get_hole_type() == '0') {
-            update_score += this.increase_score * increaseModifier;
-        } else if (this.type != '0') {
-            update_score += -this.decrease_score * decreaseModifier;
-
-            ArrayList<Ball> candidates_balls = app.get_candidates_balls();
-            this.x = 10 + (candidates_balls.size() + 2) * 32;
-            this.y = 20;
-            candidates_balls.add(this);
-        }
-        app.set_score(update_score);
-    }
-
-    /**
-     * Calculates the Euclidean distance between two points.
-     *
-     * @param x1 The x-coordinate of the first point.
-     * @param y1 The y-coordinate of the first point.
-     * @param x2 The x-coordinate of the second point.
-     * @param y2 The y-coordinate of the second point.
-     * @return The distance between the two points.
-     */
-    public double dist(float x1, float y1, float x2, float y2) {
-        return Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2));
-    }
-
-    /**
-     * Handles ball collision with player-drawn lines.
-     *
-     * @param lines The list of lines drawn by the player.
-     */
-    public void LineBounce(ArrayList<Line> lines) {
-        double ball_center_x = this.x + ballSize / 2;
-        double ball_center_y = this.y + ballSize / 2;
-
-        Iterator<Line> lineIterator = lines.iterator();
-        while (lineIterator.hasNext()) {
-            Line line = lineIterator.next();
-            boolean collision = false;
-
-            for (int[] point : line.points) {
-                PVector p1 = new PVector(point[0], point[1]);
-                PVector p2 = new PVector(point[2], point[3]);
-
-                double distance1 = dist(p1.x, p1.y, (float) ball_center_x + speedX, (float) ball_center_y + speedY);
-                double distance2 = dist(p2.x, p2.y, (float) ball_center_x + speedX, (float) ball_center_y + speedY);
-                double distance1_2 = dist(p1.x, p1.y, p2.x, p2.y);
-
-                if (distance1 + distance2 < distance1_2 + ballSize / 2) {
-                    // the ball collides with the line
-                    float dx = p2.x - p1.x;
-                    float dy = p2.y - p1.y;
-
-                    PVector normal1 = new PVector(-dy, dx).normalize();
-                    PVector normal2 = new PVector(dy, -dx).normalize();
-
-                    PVector correct_normal = get_correct_normal(p1, p2, normal1, normal2);
-                    PVector old_speed = new PVector(speedX, speedY);
-
-                    PVector new_speed = new_trajectory(correct_normal, old_speed);
-
-                    speedX = new_speed.x;
-                    speedY = new_speed.y;
-
-                    collision = true;
-                    break;
-                }
-            }
-
-            if (collision) {
-                lineIterator.remove();
-                break;
-            }
-        }
-    }
-
-    /**
-     * Calculates the new trajectory of the ball after collision with a line.
-     *
-     * @param n The normal vector of the line at the point of collision.
-     * @param v The current velocity vector of the ball.
-     * @return The new velocity vector after collision.
-     */
-    public PVector new_trajectory(PVector n, PVector v) {
-        float dotProduct = v.dot(n);
-        return PVector.sub(v, PVector.mult(n, 2 * dotProduct));
-    }
-
-    /**
-     * Determines the correct normal vector for line collision.
-     *
-     * @param p1 The start point of the line segment.
-     * @param p2 The end point of the line segment.
-     * @param n1 One possible normal vector.
-     * @param n2 The other possible normal vector.
-     * @return The correct normal vector for collision calculation.
-     */
-    public PVector get_correct_normal(PVector p1, PVector p2, PVector n1, PVector n2) {
-        PVector midPoint = PVector.add(p1, p2).div(2);
-        PVector midP1 = PVector.add(midPoint, n1);
-        PVector midP2 = PVector.add(midPoint, n2);
-        float ball_center_x = this.x + ballSize / 2;
-        float ball_center_y = this.y + ballSize / 2;
-
-        double distance11 = dist(midP1.x, midP1.y, (float) ball_center_x, (float) ball_center_y);
-        double distance12 = dist(midP2.x, midP2.y, (float) ball_center_x, (float) ball_center_y);
-
-        if (distance11 < distance12) {
-            return n1;
-        } else {
-            return n2;
-        }
-    }
-
-    /**
-     * Moves the ball based on its current speed and handles collisions.
-     *
-     * @param app The main App instance for accessing game state and methods.
-     */
-    public void move(App app) {
-        if (!app.get_is_paused() && !app.get_is_lost()) {
-            app.get_balls();
-            WallBounce(app.get_tiles(), app);
-            enter_hole(app.get_holes(), app);
-            LineBounce(app.get_lines());
-
-            this.x += this.speedX;
-            this.y += this.speedY;
-        }
-    }
-
-    public void set_speed_x(int x) {
-        this.speedX = x;
-    }
-
-    public float get_speed_x() {
-        return this.speedX;
-    }
-
-    public float get_speed_y() {
-        return this.speedY;
-    }
-
-    public void set_speed_y(int y) {
-        this.speedY = y;
-    }
-
-    public void setIndex(int indexX, int indexY) {
-        super.setIndex(indexX, indexY);
-        // If you need to reset the speed, you can do it here
-        // this.speedX = 0;
-        // this.speedY = 0;
-    }
-
-    @Override
-    public char get_type() {
-        return super.get_type();
-    }
-
-    public void set_type(char type) {
-        this.type = type;
-    }
-
-    public float getIncreaseScore() {
-        return increase_score;
-    }
-
-    public float getDecreaseScore() {
-        return decrease_score;
-    }
-
-    public float get_position_x() {
-        return this.x;
-    }
-
-    public int get_index_x() {
-        return X_pixel_to_index(this.x);
-    }
-
-    public float get_position_y() {
-        return this.y;
-    }
-
-    public int get_index_y() {
-        return Y_pixel_to_index(this.y);
-    }
-
-    public float get_decrease_score() {
-        return this.decrease_score;
-    }
-
-    public float get_increase_score() {
-        return this.increase_score;
-    }
-}
+package inkball;
+
+import java.util.*;
+
+/**
+ * Represents a ball in the Inkball game.
+ * This class extends the Sprite class and handles ball movement, collision, and
+ * scoring. A ball on the board can also be the handle of a slot in a
+ * BallStore, in which case every change is written back to the slot.
+ */
+
+public class Ball extends Sprite {
+
+    // The most wall contacts resolved in one move, enough for a ball driven
+    // into a corner.
+    static final int MAX_WALL_CONTACTS = 4;
+    private static final float NO_HIT = Float.MAX_VALUE;
+
+    public static final float BALL_SIZE = 24; // You could check it through the "property" of the picture.
+
+    // a ball within ATTRACTION_RADIUS of a hole's centre is pulled towards it
+    // and shrinks, faster still within CAPTURE_RADIUS. The shrink is the time
+    // spent there weighted by these rates, in e-foldings per second, and the
+    // ball is captured once it has shrunk to CAPTURED_SIZE.
+    public static final float CAPTURE_RADIUS = 15;
+    public static final float SHRINK_RATE = (float) -Math.log(0.8) * GameWorld.TICK_RATE;
+    public static final float CAPTURE_SHRINK_RATE = (float) -Math.log(0.725) * GameWorld.TICK_RATE;
+    public static final float CAPTURED_SIZE = 0.1f;
+    public static final float CAPTURE_SHRINK = (float) Math.log(BALL_SIZE / CAPTURED_SIZE);
+    // speed gained per tick towards the centre of the hole, per pixel away from it.
+    private static final float ATTRACTION = 0.0065f;
+    private static final int[] CONST_SPEED = { 2, -2 };
+
+    private GameWorld world;
+    protected float speedX;
+    protected float speedY;
+    // the size the ball is drawn at. Collisions always use BALL_SIZE.
+    public float ballSize = BALL_SIZE;
+    float shrink;
+
+    private float increase_score;
+    private float decrease_score;
+
+    public boolean in_hole_flag;
+
+    // position before the last move, used to interpolate between ticks.
+    int prev_x;
+    int prev_y;
+
+    // the part of the position below a whole pixel, so that speeds which are
+    // not whole numbers are not rounded away on every move.
+    float frac_x;
+    float frac_y;
+
+    // the store and slot this ball is bound to, or null if it is not on the
+    // board.
+    BallStore store;
+    int slot;
+
+    // when set, a move only records the hole that captured the ball, the line
+    // it bounced off and the breakable walls it hit instead of scoring, removing
+    // the line and hitting the walls, and the ball is not written back to its
+    // slot. Used to move balls in parallel.
+    boolean deferred;
+    Hole captured_hole;
+    Line hit_line;
+    Tile[] hit_walls = new Tile[MAX_WALL_CONTACTS];
+    int hit_wall_count;
+
+    // the normal of the last contact found by sweep_box() or sweep_corner().
+    private float sweep_normal_x;
+    private float sweep_normal_y;
+
+    /**
+     * Constructs a new Ball object.
+     *
+     * @param index_x The initial x-index of the ball on the game grid.
+     * @param index_y The initial y-index of the ball on the game grid.
+     * @param type    The type (color) of the ball.
+     * @param world   The game world for accessing game state and methods.
+     */
+    public Ball(int index_x, int index_y, char type, GameWorld world) {
+        super(index_x, index_y, type);
+        reset(index_x, index_y, type, world);
+    }
+
+    /**
+     * Resets a pooled ball to the state of a newly constructed one, taking the
+     * same random speeds as the constructor would.
+     *
+     * @param index_x The x-index of the ball on the game grid.
+     * @param index_y The y-index of the ball on the game grid.
+     * @param type    The type (color) of the ball.
+     * @param world   The game world for accessing game state and methods.
+     */
+    public void reset(int index_x, int index_y, char type, GameWorld world) {
+        this.x = X_index_to_pixel(index_x);
+        this.y = Y_index_to_pixel(index_y);
+        this.type = type;
+        this.world = world;
+        this.speedX = random_speed(world.get_random());
+        this.speedY = random_speed(world.get_random());
+        this.in_hole_flag = false;
+        this.prev_x = this.x;
+        this.prev_y = this.y;
+        this.frac_x = 0;
+        this.frac_y = 0;
+        this.ballSize = BALL_SIZE;
+        this.shrink = 0;
+        this.store = null;
+        this.deferred = false;
+        this.captured_hole = null;
+        this.hit_line = null;
+        this.hit_wall_count = 0;
+        this.increase_score = world.getScoreHoleCapture(type);
+        this.decrease_score = world.getScoreWrongHole(type);
+    }
+
+    /**
+     * Constructs a new Ball object in the world of the given App.
+     *
+     * @param index_x The initial x-index of the ball on the game grid.
+     * @param index_y The initial y-index of the ball on the game grid.
+     * @param type    The type (color) of the ball.
+     * @param app     The main App instance for accessing game state and methods.
+     */
+    public Ball(int index_x, int index_y, char type, App app) {
+        this(index_x, index_y, type, app.get_world());
+    }
+
+    /**
+     * Constructs a new Ball object to be loaded from a slot of a ball store.
+     *
+     * @param store The ball store.
+     */
+    Ball(BallStore store) {
+        super(0, 0, '0');
+        this.store = store;
+    }
+
+    /**
+     * Constructs a new Ball object off the board with the same state as another
+     * ball.
+     *
+     * @param other The ball to copy.
+     */
+    private Ball(Ball other) {
+        super(0, 0, other.type);
+        copy_from(other);
+    }
+
+    /**
+     * Takes on the state of another ball, off the board.
+     *
+     * @param other The ball to copy.
+     */
+    void copy_from(Ball other) {
+        this.store = null;
+        this.deferred = false;
+        this.type = other.type;
+        this.world = other.world;
+        this.x = other.x;
+        this.y = other.y;
+        this.frac_x = other.frac_x;
+        this.frac_y = other.frac_y;
+        this.prev_x = other.prev_x;
+        this.prev_y = other.prev_y;
+        this.speedX = other.speedX;
+        this.speedY = other.speedY;
+        this.ballSize = other.ballSize;
+        this.shrink = other.shrink;
+        this.increase_score = other.increase_score;
+        this.decrease_score = other.decrease_score;
+        this.in_hole_flag = other.in_hole_flag;
+    }
+
+    /**
+     * Picks one of the starting speeds along an axis at random.
+     *
+     * @param random The random generator to use.
+     * @return The speed in pixels per tick.
+     */
+    public static int random_speed(Random random) {
+        return CONST_SPEED[random.nextInt(CONST_SPEED.length)];
+    }
+
+    /**
+     * Writes the ball's state back to its slot if it is on the board.
+     */
+    private void sync() {
+        if (store != null && !deferred) {
+            store.write(slot, this);
+        }
+    }
+
+    /**
+     * Sets the ball's score values based on its type.
+     *
+     * @param world The game world for accessing scoring methods.
+     * @param type  The type (color) of the ball.
+     */
+    public void set_ball_score(GameWorld world, char type) {
+        this.world = world;
+        if (world != null) {
+            this.increase_score = world.getScoreHoleCapture(type);
+            this.decrease_score = world.getScoreWrongHole(type);
+        }
+        sync();
+    }
+
+    /**
+     * Moves the ball by its speed, bouncing off any wall tile in its way.
+     * The ball is swept as a circle through the move, so it cannot pass through a
+     * wall however fast it goes. The earliest wall it touches is found by
+     * intersecting the path of its centre with each wall tile grown by the
+     * radius, which gives the time of impact and the normal of the face or
+     * corner that was hit. The ball moves up to that point, its speed is
+     * reflected, and the rest of the move is swept again.
+     * Tiles are only looked at if the wall field says a wall is within reach of
+     * the move.
+     *
+     * @param walls The wall field of the game board.
+     * @param world The game world for accessing game state and methods.
+     */
+    public void WallSweep(WallField walls, GameWorld world) {
+        Tile[][] tiles = walls.get_tiles();
+        float radius = BALL_SIZE / 2;
+        float center_x = this.x + this.frac_x + radius;
+        float center_y = this.y + this.frac_y + radius;
+        float remaining = 1;
+
+        for (int contact = 0; contact < MAX_WALL_CONTACTS && remaining > 0; contact++) {
+            float dx = speedX * remaining;
+            float dy = speedY * remaining;
+
+            if (walls.distance(center_x, center_y) > radius + Math.abs(dx) + Math.abs(dy)) {
+                center_x += dx;
+                center_y += dy;
+                break;
+            }
+
+            Tile hit_tile = null;
+            float hit_t = NO_HIT;
+            float normal_x = 0;
+            float normal_y = 0;
+
+            int first_col = clamp_index(pixel_to_col(Math.min(center_x, center_x + dx) - radius));
+            int last_col = clamp_index(pixel_to_col(Math.max(center_x, center_x + dx) + radius));
+            int first_row = clamp_index(pixel_to_row(Math.min(center_y, center_y + dy) - radius));
+            int last_row = clamp_index(pixel_to_row(Math.max(center_y, center_y + dy) + radius));
+
+            for (int row = first_row; row <= last_row; row++) {
+                for (int col = first_col; col <= last_col; col++) {
+                    Tile tile = tiles[row][col];
+                    if (tile == null || !tile.is_wall) {
+                        continue;
+                    }
+                    float t = sweep_box(tile.x, tile.y, tile.x + App.CELLSIZE, tile.y + App.CELLSIZE,
+                            center_x, center_y, dx, dy, radius);
+                    if (t < hit_t) {
+                        hit_t = t;
+                        hit_tile = tile;
+                        normal_x = this.sweep_normal_x;
+                        normal_y = this.sweep_normal_y;
+                    }
+                }
+            }
+
+            if (hit_tile == null) {
+                center_x += dx;
+                center_y += dy;
+                break;
+            }
+
+            center_x += dx * hit_t;
+            center_y += dy * hit_t;
+            float dotProduct = speedX * normal_x + speedY * normal_y;
+            speedX -= 2 * dotProduct * normal_x;
+            speedY -= 2 * dotProduct * normal_y;
+            hit_wall(hit_tile, world);
+            remaining *= 1 - hit_t;
+        }
+
+        float left = center_x - radius;
+        float top = center_y - radius;
+        this.x = (int) Math.floor(left);
+        this.y = (int) Math.floor(top);
+        this.frac_x = left - this.x;
+        this.frac_y = top - this.y;
+    }
+
+    /**
+     * Finds when a circle moving from (center_x, center_y) by (dx, dy) first
+     * touches a box. The path of the centre is tested against the box grown by
+     * the radius with rounded corners. The normal at the point of contact is
+     * left in sweep_normal_x and sweep_normal_y.
+     * A circle that already overlaps the box only hits it if it is moving
+     * further in, in which case the time is 0.
+     *
+     * @param min_x    The left edge of the box.
+     * @param min_y    The top edge of the box.
+     * @param max_x    The right edge of the box.
+     * @param max_y    The bottom edge of the box.
+     * @param center_x The x-coordinate of the centre at the start of the move.
+     * @param center_y The y-coordinate of the centre at the start of the move.
+     * @param dx       The distance moved along x.
+     * @param dy       The distance moved along y.
+     * @param radius   The radius of the circle.
+     * @return The fraction of the move at which the circle touches the box, or
+     *         NO_HIT.
+     */
+    private float sweep_box(float min_x, float min_y, float max_x, float max_y,
+            float center_x, float center_y, float dx, float dy, float radius) {
+        // slab test against the grown box, remembering which axis was entered last.
+        float t_enter = -Float.MAX_VALUE;
+        float t_exit = Float.MAX_VALUE;
+        boolean enter_x = false;
+
+        if (dx == 0) {
+            if (center_x <= min_x - radius || center_x >= max_x + radius) {
+                return NO_HIT;
+            }
+        } else {
+            float t1 = (min_x - radius - center_x) / dx;
+            float t2 = (max_x + radius - center_x) / dx;
+            t_enter = Math.min(t1, t2);
+            t_exit = Math.max(t1, t2);
+            enter_x = true;
+        }
+
+        if (dy == 0) {
+            if (center_y <= min_y - radius || center_y >= max_y + radius) {
+                return NO_HIT;
+            }
+        } else {
+            float t1 = (min_y - radius - center_y) / dy;
+            float t2 = (max_y + radius - center_y) / dy;
+            if (Math.min(t1, t2) > t_enter) {
+                t_enter = Math.min(t1, t2);
+                enter_x = false;
+            }
+            t_exit = Math.min(t_exit, Math.max(t1, t2));
+        }
+
+        if (t_enter >= t_exit || t_exit <= 0 || t_enter > 1) {
+            return NO_HIT;
+        }
+
+        float t = Math.max(t_enter, 0);
+        float contact_x = center_x + dx * t;
+        float contact_y = center_y + dy * t;
+        boolean outside_x = contact_x < min_x || contact_x > max_x;
+        boolean outside_y = contact_y < min_y || contact_y > max_y;
+        if (outside_x && outside_y) {
+            return sweep_corner(contact_x < min_x ? min_x : max_x, contact_y < min_y ? min_y : max_y,
+                    center_x, center_y, dx, dy, radius);
+        }
+
+        if (t_enter < 0) {
+            // already overlapping: push out through the face of least penetration.
+            float left = center_x - (min_x - radius);
+            float right = max_x + radius - center_x;
+            float up = center_y - (min_y - radius);
+            float down = max_y + radius - center_y;
+            float least = Math.min(Math.min(left, right), Math.min(up, down));
+            sweep_normal_x = least == left ? -1 : least == right ? 1 : 0;
+            sweep_normal_y = sweep_normal_x != 0 ? 0 : least == up ? -1 : 1;
+        } else if (enter_x) {
+            sweep_normal_x = dx > 0 ? -1 : 1;
+            sweep_normal_y = 0;
+        } else {
+            sweep_normal_x = 0;
+            sweep_normal_y = dy > 0 ? -1 : 1;
+        }
+
+        if (dx * sweep_normal_x + dy * sweep_normal_y >= 0) {
+            return NO_HIT;
+        }
+        return t;
+    }
+
+    /**
+     * Finds when a circle moving from (center_x, center_y) by (dx, dy) first
+     * touches a corner point, leaving the normal in sweep_normal_x and
+     * sweep_normal_y.
+     *
+     * @param corner_x The x-coordinate of the corner.
+     * @param corner_y The y-coordinate of the corner.
+     * @param center_x The x-coordinate of the centre at the start of the move.
+     * @param center_y The y-coordinate of the centre at the start of the move.
+     * @param dx       The distance moved along x.
+     * @param dy       The distance moved along y.
+     * @param radius   The radius of the circle.
+     * @return The fraction of the move at which the circle touches the corner,
+     *         or NO_HIT.
+     */
+    private float sweep_corner(float corner_x, float corner_y, float center_x, float center_y,
+            float dx, float dy, float radius) {
+        float offset_x = center_x - corner_x;
+        float offset_y = center_y - corner_y;
+        float a = dx * dx + dy * dy;
+        float half_b = offset_x * dx + offset_y * dy;
+        float c = offset_x * offset_x + offset_y * offset_y - radius * radius;
+
+        // moving away from the corner, or not moving at all.
+        if (half_b >= 0 || a == 0) {
+            return NO_HIT;
+        }
+
+        float t;
+        if (c <= 0) {
+            t = 0;
+        } else {
+            float discriminant = half_b * half_b - a * c;
+            if (discriminant < 0) {
+                return NO_HIT;
+            }
+            t = (-half_b - (float) Math.sqrt(discriminant)) / a;
+            if (t > 1) {
+                return NO_HIT;
+            }
+        }
+
+        float normal_x = offset_x + dx * t;
+        float normal_y = offset_y + dy * t;
+        float length = (float) Math.sqrt(normal_x * normal_x + normal_y * normal_y);
+        if (length == 0) {
+            return NO_HIT;
+        }
+        sweep_normal_x = normal_x / length;
+        sweep_normal_y = normal_y / length;
+        return t;
+    }
+
+    /**
+     * Takes on the colour of a coloured wall the ball has bounced off, and hits
+     * the wall if it is breakable.
+     *
+     * @param tile  The wall tile.
+     * @param world The game world for accessing scoring methods.
+     */
+    private void hit_wall(Tile tile, GameWorld world) {
+        if (tile.is_breakable) {
+            if (deferred) {
+                hit_walls[hit_wall_count++] = tile;
+            } else {
+                world.hit_breakable(tile);
+            }
+        }
+        if (tile.get_type() != 'X') {
+            this.type = tile.get_type();
+            this.increase_score = world.getScoreHoleCapture(tile.get_type());
+            this.decrease_score = world.getScoreWrongHole(tile.get_type());
+        }
+    }
+
+    private static int pixel_to_col(float pixel_x) {
+        return (int) Math.floor(pixel_x / App.CELLSIZE);
+    }
+
+    private static int pixel_to_row(float pixel_y) {
+        return (int) Math.floor((pixel_y - App.TOPBAR) / App.CELLSIZE);
+    }
+
+    private static int clamp_index(int index) {
+        return Math.max(0, Math.min(App.Tile_SIZE - 1, index));
+    }
+
+    /**
+     * Checks if the ball has entered a hole and updates game state accordingly.
+     * Only the holes bucketed in the cell of the ball's centre can reach it.
+     * Each call is one tick spent near the holes: the ball is pulled towards
+     * every hole in reach and shrinks by the rates of the zones it is in. Its
+     * size follows from the shrink alone, so it does not depend on how often
+     * the ball is drawn, and a ball that gets away returns to its full size.
+     *
+     * @param holes The index of the holes on the game board.
+     * @param world The game world for updating game state.
+     */
+    public void enter_hole(HoleIndex holes, GameWorld world) {
+        float ball_center_x = this.x + BALL_SIZE / 2;
+        float ball_center_y = this.y + BALL_SIZE / 2;
+        int cell = holes.cell_of(ball_center_x, ball_center_y);
+        boolean attracted = false;
+
+        for (int i = 0; i < holes.get_cell_size(cell); i++) {
+            Hole hole = holes.get_cell_hole(cell, i);
+            double dx = hole.x + 32 - ball_center_x;
+            double dy = hole.y + 32 - ball_center_y;
+
+            double distance2 = dx * dx + dy * dy;
+            if (distance2 < HoleIndex.ATTRACTION_RADIUS * HoleIndex.ATTRACTION_RADIUS) {
+                attracted = true;
+                speedX += dx * ATTRACTION;
+                speedY += dy * ATTRACTION;
+
+                this.shrink += SHRINK_RATE * GameWorld.TICK;
+                if (distance2 < CAPTURE_RADIUS * CAPTURE_RADIUS) {
+                    this.shrink += CAPTURE_SHRINK_RATE * GameWorld.TICK;
+                    if (this.shrink >= CAPTURE_SHRINK || distance2 < 1) {
+                        this.in_hole_flag = true;
+                        if (deferred) {
+                            this.captured_hole = hole;
+                        } else {
+                            update_the_score(hole, world);
+                        }
+                        this.ballSize = 0;
+                        return;
+                    }
+                }
+            }
+        }
+        if (!attracted) {
+            this.shrink = 0;
+        }
+        this.ballSize = size_at(this.shrink);
+    }
+
+    /**
+     * Returns the size of a ball that has shrunk by the given amount.
+     *
+     * @param shrink The shrink of the ball.
+     * @return The size in pixels.
+     */
+    public static float size_at(float shrink) {
+        return BALL_SIZE * (float) Math.exp(-shrink);
+    }
+
+    /**
+     * Returns how many more ticks a ball that has shrunk by the given amount
+     * takes to be captured if it stays within the capture radius of a hole, so
+     * a capture can be skipped to without simulating it.
+     *
+     * @param shrink The shrink of the ball.
+     * @return The number of ticks, counting the tick of the capture.
+     */
+    public static int ticks_to_capture(float shrink) {
+        float remaining = CAPTURE_SHRINK - shrink;
+        if (remaining <= 0) {
+            return 1;
+        }
+        return (int) Math.ceil(remaining / ((SHRINK_RATE + CAPTURE_SHRINK_RATE) * GameWorld.TICK));
+    }
+
+    /**
+     * Updates the game score when a ball enters a hole.
+     *
+     * @param hole The hole that the ball entered.
+     * @param world The game world for updating the score.
+     */
+    public void update_the_score(Hole hole, GameWorld world) {
+        float update_score = 0;
+        float increaseModifier = world.get_scoreIncreaseFromHoleCaptureModifier();
+        float decreaseModifier = world.get_scoreDecreaseFromWrongHoleModifier();
+
+        if (this.type == hole.get_hole_type() || hole.get_hole_type() == '0') {
+            update_score += this.increase_score * increaseModifier;
+        } else if (this.type != '0') {
+            update_score += -this.decrease_score * decreaseModifier;
+
+            // the shared cursor of a ball store is reused for the next slot, so
+            // the ball going back to the queue has to be a copy.
+            Ball candidate = this;
+            if (store != null && store.is_cursor(this)) {
+                candidate = world.get_ball_pool().acquire();
+                candidate.copy_from(this);
+            }
+            ArrayList<Ball> candidates_balls = world.get_candidates_balls();
+            candidate.x = 10 + (candidates_balls.size() + 2) * 32;
+            candidate.y = 20;
+            candidates_balls.add(candidate);
+        }
+        world.set_score(update_score);
+    }
+
+    /**
+     * Calculates the Euclidean distance between two points.
+     *
+     * @param x1 The x-coordinate of the first point.
+     * @param y1 The y-coordinate of the first point.
+     * @param x2 The x-coordinate of the second point.
+     * @param y2 The y-coordinate of the second point.
+     * @return The distance between the two points.
+     */
+    public double dist(float x1, float y1, float x2, float y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Handles ball collision with player-drawn lines.
+     * Only the segments bucketed in the grid cell the ball is moving into are
+     * tested. When several segments are hit, the one from the earliest drawn
+     * line wins, and that line is removed.
+     *
+     * @param lines The lines drawn by the player.
+     */
+    public void LineBounce(LineList lines) {
+        double ball_center_x = this.x + BALL_SIZE / 2;
+        double ball_center_y = this.y + BALL_SIZE / 2;
+
+        int cell = lines.cell_of((float) ball_center_x + speedX, (float) ball_center_y + speedY);
+        Line hit_line = null;
+        int hit_segment = -1;
+
+        for (int k = 0; k < lines.get_cell_size(cell); k++) {
+            Line line = lines.get_cell_line(cell, k);
+            int segment = lines.get_cell_segment(cell, k);
+            if (hit_line != null && (line.order > hit_line.order
+                    || (line.order == hit_line.order && segment > hit_segment))) {
+                continue;
+            }
+
+            int[] segments = line.get_segments();
+            int o = segment * 4;
+            double distance1 = dist(segments[o], segments[o + 1], (float) ball_center_x + speedX,
+                    (float) ball_center_y + speedY);
+            double distance2 = dist(segments[o + 2], segments[o + 3], (float) ball_center_x + speedX,
+                    (float) ball_center_y + speedY);
+            double distance1_2 = dist(segments[o], segments[o + 1], segments[o + 2], segments[o + 3]);
+
+            if (distance1 + distance2 < distance1_2 + BALL_SIZE / 2) {
+                hit_line = line;
+                hit_segment = segment;
+            }
+        }
+
+        if (hit_line != null) {
+            // the ball collides with the line
+            int[] segments = hit_line.get_segments();
+            int o = hit_segment * 4;
+            bounce_off_segment(segments[o], segments[o + 1], segments[o + 2], segments[o + 3]);
+            if (deferred) {
+                this.hit_line = hit_line;
+            } else {
+                lines.remove(hit_line);
+            }
+        }
+    }
+
+    /**
+     * Reflects the ball's speed off a line segment, using the normal of the
+     * segment that points towards the ball. Works on float locals only so that
+     * a bounce does not allocate.
+     *
+     * @param x1 The x-coordinate of the start point of the segment.
+     * @param y1 The y-coordinate of the start point of the segment.
+     * @param x2 The x-coordinate of the end point of the segment.
+     * @param y2 The y-coordinate of the end point of the segment.
+     */
+    public void bounce_off_segment(float x1, float y1, float x2, float y2) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+
+        // one of the two unit normals; the other one is its negation.
+        float normal_x = -dy;
+        float normal_y = dx;
+        float length = (float) Math.sqrt(normal_x * normal_x + normal_y * normal_y);
+        if (length != 0) {
+            normal_x /= length;
+            normal_y /= length;
+        }
+
+        // keep the normal whose tip, placed at the midpoint, is closer to the ball.
+        float mid_x = (x1 + x2) / 2;
+        float mid_y = (y1 + y2) / 2;
+        float ball_center_x = this.x + BALL_SIZE / 2;
+        float ball_center_y = this.y + BALL_SIZE / 2;
+        float dx1 = mid_x + normal_x - ball_center_x;
+        float dy1 = mid_y + normal_y - ball_center_y;
+        float dx2 = mid_x - normal_x - ball_center_x;
+        float dy2 = mid_y - normal_y - ball_center_y;
+        if (dx1 * dx1 + dy1 * dy1 >= dx2 * dx2 + dy2 * dy2) {
+            normal_x = -normal_x;
+            normal_y = -normal_y;
+        }
+
+        float dotProduct = speedX * normal_x + speedY * normal_y;
+        speedX -= 2 * dotProduct * normal_x;
+        speedY -= 2 * dotProduct * normal_y;
+    }
+
+    /**
+     * Moves the ball based on its current speed and handles collisions.
+     * The hole and line checks adjust the speed first, and the wall sweep then
+     * moves the ball, so a line bounce cannot push the ball into a wall. A ball
+     * captured by a hole does not move any further.
+     *
+     * @param world The game world for accessing game state and methods.
+     */
+    public void move(GameWorld world) {
+        if (!world.get_is_paused() && !world.get_is_lost()) {
+            this.prev_x = this.x;
+            this.prev_y = this.y;
+
+            enter_hole(world.get_hole_index(), world);
+            if (!in_hole_flag) {
+                LineBounce(world.get_lines());
+                WallSweep(world.get_wall_field(), world);
+            }
+            sync();
+        }
+    }
+
+    /**
+     * Moves the ball within the world of the given App.
+     *
+     * @param app The main App instance for accessing game state and methods.
+     */
+    public void move(App app) {
+        move(app.get_world());
+    }
+
+    /**
+     * Returns the x-coordinate to draw the ball at between two ticks.
+     *
+     * @param alpha How far the current frame is into the next tick, from 0 to 1.
+     * @return The interpolated x-coordinate in pixels.
+     */
+    public float get_render_x(float alpha) {
+        return this.prev_x + (this.x - this.prev_x) * alpha;
+    }
+
+    /**
+     * Returns the y-coordinate to draw the ball at between two ticks.
+     *
+     * @param alpha How far the current frame is into the next tick, from 0 to 1.
+     * @return The interpolated y-coordinate in pixels.
+     */
+    public float get_render_y(float alpha) {
+        return this.prev_y + (this.y - this.prev_y) * alpha;
+    }
+
+    public void set_speed_x(int x) {
+        this.speedX = x;
+        sync();
+    }
+
+    public float get_speed_x() {
+        return this.speedX;
+    }
+
+    public float get_speed_y() {
+        return this.speedY;
+    }
+
+    public void set_speed_y(int y) {
+        this.speedY = y;
+        sync();
+    }
+
+    public void setIndex(int indexX, int indexY) {
+        super.setIndex(indexX, indexY);
+        // If you need to reset the speed, you can do it here
+        // this.speedX = 0;
+        // this.speedY = 0;
+        sync();
+    }
+
+    @Override
+    public void set_x(int x) {
+        super.set_x(x);
+        sync();
+    }
+
+    @Override
+    public void set_y(int y) {
+        super.set_y(y);
+        sync();
+    }
+
+    @Override
+    public char get_type() {
+        return super.get_type();
+    }
+
+    public void set_type(char type) {
+        this.type = type;
+        sync();
+    }
+
+    void set_scores(float increase_score, float decrease_score) {
+        this.increase_score = increase_score;
+        this.decrease_score = decrease_score;
+    }
+
+    public float getIncreaseScore() {
+        return increase_score;
+    }
+
+    public float getDecreaseScore() {
+        return decrease_score;
+    }
+
+    public float get_position_x() {
+        return this.x;
+    }
+
+    public int get_index_x() {
+        return X_pixel_to_index(this.x);
+    }
+
+    public float get_position_y() {
+        return this.y;
+    }
+
+    public int get_index_y() {
+        return Y_pixel_to_index(this.y);
+    }
+
+    public float get_decrease_score() {
+        return this.decrease_score;
+    }
+
+    public float get_increase_score() {
+        return this.increase_score;
+    }
+}
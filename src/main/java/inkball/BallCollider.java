@@ -0,0 +1,120 @@
+package inkball;
+
+import java.util.*;
+
+/**
+ * Bounces the balls on the board off each other after they have moved.
+ * The broad phase sorts the balls by the left edge of their circle and sweeps
+ * along x, so only balls whose x-extents overlap are ever compared and a tick
+ * costs O(n log n) rather than O(n^2). Touching balls that are moving towards
+ * each other exchange the components of their velocities along the line
+ * between their centres, which is an elastic collision of equal masses.
+ * Balls already shrinking into a hole no longer collide. Pairs are resolved in
+ * sorted order, with the slot breaking ties, so the result is the same for the
+ * same balls however they were moved.
+ */
+public class BallCollider {
+
+    private long[] order = new long[0];
+    private float[] center_x = new float[0];
+    private float[] center_y = new float[0];
+    private float[] radius = new float[0];
+
+    private long collisions;
+
+    /**
+     * Bounces every pair of touching balls that are moving towards each other.
+     *
+     * @param balls The balls on the board.
+     * @return The number of pairs that bounced.
+     */
+    public int collide(BallStore balls) {
+        int size = balls.size();
+        if (order.length < size) {
+            int capacity = Math.max(size, order.length * 2);
+            order = new long[capacity];
+            center_x = new float[capacity];
+            center_y = new float[capacity];
+            radius = new float[capacity];
+        }
+
+        int count = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (balls.get_shrink(slot) > 0) {
+                continue;
+            }
+            radius[slot] = Ball.BALL_SIZE / 2;
+            center_x[slot] = balls.get_center_x(slot);
+            center_y[slot] = balls.get_center_y(slot);
+            order[count++] = (long) sortable_bits(center_x[slot] - radius[slot]) << 32 | slot;
+        }
+        Arrays.sort(order, 0, count);
+
+        int bounced = 0;
+        for (int i = 0; i < count; i++) {
+            int a = (int) order[i];
+            float max_x = center_x[a] + radius[a];
+            for (int j = i + 1; j < count; j++) {
+                int b = (int) order[j];
+                if (center_x[b] - radius[b] > max_x) {
+                    break;
+                }
+                if (bounce(balls, a, b)) {
+                    bounced++;
+                }
+            }
+        }
+        collisions += bounced;
+        return bounced;
+    }
+
+    /**
+     * Maps a float to an int that sorts the same way, so the sort key holds the
+     * exact left edge the sweep compares against.
+     *
+     * @param value The float, which must not be NaN.
+     * @return The int with the same order.
+     */
+    static int sortable_bits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+    }
+
+    /**
+     * Bounces two balls off each other if they touch and are closing in.
+     *
+     * @return true if the balls bounced.
+     */
+    private boolean bounce(BallStore balls, int a, int b) {
+        float dx = center_x[b] - center_x[a];
+        float dy = center_y[b] - center_y[a];
+        float reach = radius[a] + radius[b];
+        float distance2 = dx * dx + dy * dy;
+        if (distance2 >= reach * reach || distance2 == 0) {
+            return false;
+        }
+
+        float distance = (float) Math.sqrt(distance2);
+        float normal_x = dx / distance;
+        float normal_y = dy / distance;
+        float speed_ax = balls.get_speed_x(a);
+        float speed_ay = balls.get_speed_y(a);
+        float speed_bx = balls.get_speed_x(b);
+        float speed_by = balls.get_speed_y(b);
+        // the speed at which b is closing in on a along the normal.
+        float closing = (speed_ax - speed_bx) * normal_x + (speed_ay - speed_by) * normal_y;
+        if (closing <= 0) {
+            return false;
+        }
+        balls.set_speed(a, speed_ax - closing * normal_x, speed_ay - closing * normal_y);
+        balls.set_speed(b, speed_bx + closing * normal_x, speed_by + closing * normal_y);
+        return true;
+    }
+
+    /**
+     * The getter method for the number of bounces so far.
+     */
+    public long get_collisions() {
+        return this.collisions;
+    }
+}
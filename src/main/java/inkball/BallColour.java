@@ -0,0 +1,75 @@
+package inkball;
+
+/**
+ * The colours of balls, holes and walls. Levels and the rest of the game
+ * encode a colour as the character of its ordinal, '0' to '4', so the ordinal
+ * of a colour character is also its index into any per-colour table.
+ */
+public enum BallColour {
+
+    GREY('0'),
+    ORANGE('1'),
+    BLUE('2'),
+    GREEN('3'),
+    YELLOW('4');
+
+    private static final BallColour[] VALUES = values();
+
+    public static final int COUNT = VALUES.length;
+
+    private final char type;
+
+    BallColour(char type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the table index of a colour character.
+     *
+     * @param type The colour character, '0' to '4'.
+     * @return The ordinal of the colour.
+     */
+    public static int index_of(char type) {
+        return type - '0';
+    }
+
+    /**
+     * Returns the colour of a colour character.
+     *
+     * @param type The colour character, '0' to '4'.
+     * @return The colour.
+     */
+    public static BallColour of_type(char type) {
+        return VALUES[index_of(type)];
+    }
+
+    /**
+     * Returns the colour with the given name as used in the configuration.
+     * Unknown names are yellow.
+     *
+     * @param name The name of the colour, in any case.
+     * @return The colour.
+     */
+    public static BallColour of_name(String name) {
+        switch (name.toLowerCase()) {
+            case "grey":
+                return GREY;
+            case "orange":
+                return ORANGE;
+            case "blue":
+                return BLUE;
+            case "green":
+                return GREEN;
+            case "yellow":
+            default:
+                return YELLOW;
+        }
+    }
+
+    /**
+     * The getter method for the colour character.
+     */
+    public char get_type() {
+        return this.type;
+    }
+}
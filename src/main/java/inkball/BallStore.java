@@ -0,0 +1,417 @@
+package inkball;
+
+import java.util.*;
+
+/**
+ * The balls on the board, kept in parallel primitive arrays.
+ * Each ball occupies one slot holding its position, speed, size, type and
+ * score values. A captured ball is removed by moving the last slot into its
+ * place, so the slots stay packed and moving or drawing every ball walks the
+ * arrays from start to end. Spawning a ball only fills in a slot.
+ * A Ball object can still be bound to a slot as a handle, which is how balls
+ * are handed out by get() and taken in by add(). A handle's own fields are
+ * the ball's state and are written back to the slot whenever the ball moves
+ * or is changed through a setter. Slots without a handle are moved through
+ * one shared cursor ball that is loaded from and written back to the slot.
+ */
+public class BallStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+
+    private int[] x;
+    private int[] y;
+    private float[] frac_x;
+    private float[] frac_y;
+    private int[] prev_x;
+    private int[] prev_y;
+    private float[] speed_x;
+    private float[] speed_y;
+    private float[] ball_size;
+    private float[] shrink;
+    private char[] type;
+    private float[] increase_score;
+    private float[] decrease_score;
+
+    private Ball[] handles;
+    private Ball cursor;
+
+    /**
+     * Constructs a new, empty BallStore object.
+     */
+    public BallStore() {
+        x = new int[INITIAL_CAPACITY];
+        y = new int[INITIAL_CAPACITY];
+        frac_x = new float[INITIAL_CAPACITY];
+        frac_y = new float[INITIAL_CAPACITY];
+        prev_x = new int[INITIAL_CAPACITY];
+        prev_y = new int[INITIAL_CAPACITY];
+        speed_x = new float[INITIAL_CAPACITY];
+        speed_y = new float[INITIAL_CAPACITY];
+        ball_size = new float[INITIAL_CAPACITY];
+        shrink = new float[INITIAL_CAPACITY];
+        type = new char[INITIAL_CAPACITY];
+        increase_score = new float[INITIAL_CAPACITY];
+        decrease_score = new float[INITIAL_CAPACITY];
+        handles = new Ball[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Puts a new ball on the board at a grid position, moving diagonally in a
+     * random direction.
+     *
+     * @param index_x The x-index of the ball on the game grid.
+     * @param index_y The y-index of the ball on the game grid.
+     * @param type    The type (color) of the ball.
+     * @param world   The game world for the random direction and score values.
+     * @return The slot of the new ball.
+     */
+    public int spawn(int index_x, int index_y, char type, GameWorld world) {
+        int slot = next_slot();
+        Random random = world.get_random();
+        x[slot] = index_x * App.CELLSIZE;
+        y[slot] = App.TOPBAR + index_y * App.CELLSIZE;
+        frac_x[slot] = 0;
+        frac_y[slot] = 0;
+        prev_x[slot] = x[slot];
+        prev_y[slot] = y[slot];
+        speed_x[slot] = Ball.random_speed(random);
+        speed_y[slot] = Ball.random_speed(random);
+        ball_size[slot] = Ball.BALL_SIZE;
+        shrink[slot] = 0;
+        this.type[slot] = type;
+        increase_score[slot] = world.getScoreHoleCapture(type);
+        decrease_score[slot] = world.getScoreWrongHole(type);
+        return slot;
+    }
+
+    /**
+     * Puts a ball on the board, keeping the Ball object as the handle of its
+     * slot.
+     *
+     * @param ball A ball that is not on the board yet.
+     */
+    public void add(Ball ball) {
+        int slot = next_slot();
+        handles[slot] = ball;
+        ball.store = this;
+        ball.slot = slot;
+        write(slot, ball);
+    }
+
+    /**
+     * Returns the handle of a slot, creating one the first time a slot without
+     * a handle is asked for.
+     *
+     * @param slot The slot of the ball.
+     * @return The ball in the slot.
+     */
+    public Ball get(int slot) {
+        if (handles[slot] == null) {
+            Ball ball = new Ball(this);
+            read(slot, ball);
+            handles[slot] = ball;
+        }
+        return handles[slot];
+    }
+
+    /**
+     * Returns a ball to move the given slot with without allocating. This is the
+     * slot's handle if it has one, otherwise the shared cursor loaded with the
+     * slot, which is only valid until the next call.
+     *
+     * @param slot The slot of the ball.
+     * @return The ball to move.
+     */
+    public Ball view(int slot) {
+        if (handles[slot] != null) {
+            return handles[slot];
+        }
+        if (cursor == null) {
+            cursor = new Ball(this);
+        }
+        read(slot, cursor);
+        return cursor;
+    }
+
+    /**
+     * Checks whether a ball is the shared cursor, whose state belongs to
+     * whichever slot it was last loaded with.
+     *
+     * @param ball The ball to check.
+     * @return true if the ball is the cursor.
+     */
+    public boolean is_cursor(Ball ball) {
+        return ball == cursor;
+    }
+
+    /**
+     * Removes a ball by moving the last ball into its slot. A handle of the
+     * removed ball stays usable as a ball that is not on the board.
+     *
+     * @param slot The slot of the ball to remove.
+     */
+    public void remove(int slot) {
+        if (handles[slot] != null) {
+            handles[slot].store = null;
+        }
+        int last = size - 1;
+        if (slot != last) {
+            x[slot] = x[last];
+            y[slot] = y[last];
+            frac_x[slot] = frac_x[last];
+            frac_y[slot] = frac_y[last];
+            prev_x[slot] = prev_x[last];
+            prev_y[slot] = prev_y[last];
+            speed_x[slot] = speed_x[last];
+            speed_y[slot] = speed_y[last];
+            ball_size[slot] = ball_size[last];
+            shrink[slot] = shrink[last];
+            type[slot] = type[last];
+            increase_score[slot] = increase_score[last];
+            decrease_score[slot] = decrease_score[last];
+            handles[slot] = handles[last];
+            if (handles[slot] != null) {
+                handles[slot].slot = slot;
+            }
+        }
+        handles[last] = null;
+        size--;
+    }
+
+    /**
+     * Looks the score values of every ball up again by its type, and updates
+     * the handles of the slots that have one.
+     *
+     * @param world The game world for the score values.
+     */
+    public void rescore(GameWorld world) {
+        for (int slot = 0; slot < size; slot++) {
+            increase_score[slot] = world.getScoreHoleCapture(type[slot]);
+            decrease_score[slot] = world.getScoreWrongHole(type[slot]);
+            if (handles[slot] != null) {
+                handles[slot].set_scores(increase_score[slot], decrease_score[slot]);
+            }
+        }
+    }
+
+    /**
+     * Removes every ball.
+     */
+    public void clear() {
+        clear(null);
+    }
+
+    /**
+     * Removes every ball, releasing the handles of the slots into a pool. The
+     * arrays keep their capacity for the next balls.
+     *
+     * @param pool The pool of balls, or null to let the handles go.
+     */
+    public void clear(ObjectPool<Ball> pool) {
+        for (int slot = 0; slot < size; slot++) {
+            if (handles[slot] != null) {
+                handles[slot].store = null;
+                if (pool != null) {
+                    pool.release(handles[slot]);
+                }
+                handles[slot] = null;
+            }
+        }
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies a ball's state into a slot.
+     *
+     * @param slot The slot to write.
+     * @param ball The ball to copy from.
+     */
+    void write(int slot, Ball ball) {
+        x[slot] = ball.x;
+        y[slot] = ball.y;
+        frac_x[slot] = ball.frac_x;
+        frac_y[slot] = ball.frac_y;
+        prev_x[slot] = ball.prev_x;
+        prev_y[slot] = ball.prev_y;
+        speed_x[slot] = ball.speedX;
+        speed_y[slot] = ball.speedY;
+        ball_size[slot] = ball.ballSize;
+        shrink[slot] = ball.shrink;
+        type[slot] = ball.type;
+        increase_score[slot] = ball.getIncreaseScore();
+        decrease_score[slot] = ball.getDecreaseScore();
+    }
+
+    /**
+     * Copies a slot into a ball and binds the ball to the slot.
+     *
+     * @param slot The slot to read.
+     * @param ball The ball to copy into.
+     */
+    void read(int slot, Ball ball) {
+        ball.store = this;
+        ball.slot = slot;
+        ball.x = x[slot];
+        ball.y = y[slot];
+        ball.frac_x = frac_x[slot];
+        ball.frac_y = frac_y[slot];
+        ball.prev_x = prev_x[slot];
+        ball.prev_y = prev_y[slot];
+        ball.speedX = speed_x[slot];
+        ball.speedY = speed_y[slot];
+        ball.ballSize = ball_size[slot];
+        ball.shrink = shrink[slot];
+        ball.type = type[slot];
+        ball.set_scores(increase_score[slot], decrease_score[slot]);
+        ball.in_hole_flag = false;
+    }
+
+    /**
+     * Copies a slot of another store into a slot of this one, refreshing the
+     * handle of the slot if it has one.
+     *
+     * @param from      The store to copy from.
+     * @param from_slot The slot to copy from.
+     * @param to_slot   The slot to copy to.
+     */
+    void copy_slot(BallStore from, int from_slot, int to_slot) {
+        x[to_slot] = from.x[from_slot];
+        y[to_slot] = from.y[from_slot];
+        frac_x[to_slot] = from.frac_x[from_slot];
+        frac_y[to_slot] = from.frac_y[from_slot];
+        prev_x[to_slot] = from.prev_x[from_slot];
+        prev_y[to_slot] = from.prev_y[from_slot];
+        speed_x[to_slot] = from.speed_x[from_slot];
+        speed_y[to_slot] = from.speed_y[from_slot];
+        ball_size[to_slot] = from.ball_size[from_slot];
+        shrink[to_slot] = from.shrink[from_slot];
+        type[to_slot] = from.type[from_slot];
+        increase_score[to_slot] = from.increase_score[from_slot];
+        decrease_score[to_slot] = from.decrease_score[from_slot];
+        if (handles[to_slot] != null) {
+            read(to_slot, handles[to_slot]);
+        }
+    }
+
+    /**
+     * Sets the speed of a slot, and of its handle if it has one.
+     *
+     * @param slot    The slot of the ball.
+     * @param speed_x The new speed along x in pixels per tick.
+     * @param speed_y The new speed along y in pixels per tick.
+     */
+    void set_speed(int slot, float speed_x, float speed_y) {
+        this.speed_x[slot] = speed_x;
+        this.speed_y[slot] = speed_y;
+        if (handles[slot] != null) {
+            handles[slot].speedX = speed_x;
+            handles[slot].speedY = speed_y;
+        }
+    }
+
+    /**
+     * Sets the number of slots in use without filling them in, growing the
+     * arrays if needed. Only for stores used as scratch space.
+     *
+     * @param count The number of slots.
+     */
+    void resize(int count) {
+        while (x.length < count) {
+            size = x.length;
+            next_slot();
+        }
+        size = count;
+    }
+
+    private int next_slot() {
+        if (size == x.length) {
+            int capacity = x.length * 2;
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            frac_x = Arrays.copyOf(frac_x, capacity);
+            frac_y = Arrays.copyOf(frac_y, capacity);
+            prev_x = Arrays.copyOf(prev_x, capacity);
+            prev_y = Arrays.copyOf(prev_y, capacity);
+            speed_x = Arrays.copyOf(speed_x, capacity);
+            speed_y = Arrays.copyOf(speed_y, capacity);
+            ball_size = Arrays.copyOf(ball_size, capacity);
+            shrink = Arrays.copyOf(shrink, capacity);
+            type = Arrays.copyOf(type, capacity);
+            increase_score = Arrays.copyOf(increase_score, capacity);
+            decrease_score = Arrays.copyOf(decrease_score, capacity);
+            handles = Arrays.copyOf(handles, capacity);
+        }
+        return size++;
+    }
+
+    /**
+     * Returns the x-coordinate to draw a ball at between two ticks.
+     *
+     * @param slot  The slot of the ball.
+     * @param alpha How far the current frame is into the next tick, from 0 to 1.
+     * @return The interpolated x-coordinate in pixels.
+     */
+    public float get_render_x(int slot, float alpha) {
+        return prev_x[slot] + (x[slot] - prev_x[slot]) * alpha;
+    }
+
+    /**
+     * Returns the y-coordinate to draw a ball at between two ticks.
+     *
+     * @param slot  The slot of the ball.
+     * @param alpha How far the current frame is into the next tick, from 0 to 1.
+     * @return The interpolated y-coordinate in pixels.
+     */
+    public float get_render_y(int slot, float alpha) {
+        return prev_y[slot] + (y[slot] - prev_y[slot]) * alpha;
+    }
+
+    /**
+     * The getter methods for a slot.
+     */
+    public int get_x(int slot) {
+        return x[slot];
+    }
+
+    public int get_y(int slot) {
+        return y[slot];
+    }
+
+    public float get_center_x(int slot) {
+        return x[slot] + frac_x[slot] + Ball.BALL_SIZE / 2;
+    }
+
+    public float get_center_y(int slot) {
+        return y[slot] + frac_y[slot] + Ball.BALL_SIZE / 2;
+    }
+
+    public float get_speed_x(int slot) {
+        return speed_x[slot];
+    }
+
+    public float get_speed_y(int slot) {
+        return speed_y[slot];
+    }
+
+    public float get_size(int slot) {
+        return ball_size[slot];
+    }
+
+    public float get_shrink(int slot) {
+        return shrink[slot];
+    }
+
+    public char get_type(int slot) {
+        return type[slot];
+    }
+
+    public int get_capacity() {
+        return x.length;
+    }
+}
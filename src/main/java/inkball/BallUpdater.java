@@ -0,0 +1,204 @@
+package inkball;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Moves the balls of a world in two phases so that large numbers of balls can
+ * be moved on every core, with the same result as moving them one by one.
+ * In the compute phase every ball is moved in parallel against the lines as
+ * they were at the start of the tick. A moved ball is not written back, and
+ * the hole that captured it, the line it bounced off and the breakable walls it
+ * hit are only recorded.
+ * In the commit phase the balls are visited one by one in the same order as
+ * the sequential update, and the recorded scores, re-queues, line removals and
+ * wall hits are applied. A ball whose line was already removed by an earlier
+ * ball in the same tick would have moved differently, so it is moved again on
+ * the spot. Walls only break after every ball has moved, so the walls are the
+ * same for every ball of a tick.
+ */
+public class BallUpdater {
+
+    // The number of balls each parallel task moves.
+    public static final int CHUNK_SIZE = 128;
+
+    private final ForkJoinPool pool;
+
+    private BallStore next = new BallStore();
+    private Hole[] captured_holes = new Hole[0];
+    private Line[] hit_lines = new Line[0];
+    // the breakable walls each ball hit, MAX_WALL_CONTACTS entries per slot.
+    private Tile[] hit_walls = new Tile[0];
+    private int[] hit_wall_counts = new int[0];
+    private int[] order = new int[0];
+    private Ball[] scratch = new Ball[0];
+
+    private long recomputed;
+
+    /**
+     * Constructs a new BallUpdater object.
+     *
+     * @param pool The pool to run the compute phase in.
+     */
+    public BallUpdater(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Moves every ball of the world once and removes the ones captured by a
+     * hole.
+     *
+     * @param world The game world.
+     */
+    public void update(GameWorld world) {
+        BallStore balls = world.get_balls();
+        int count = balls.size();
+        prepare(balls, count);
+
+        pool.invoke(new ComputeTask(world, balls, 0, count));
+
+        commit(world, balls, count);
+    }
+
+    /**
+     * Makes room for the results of the given number of balls.
+     */
+    private void prepare(BallStore balls, int count) {
+        next.resize(count);
+        if (captured_holes.length < count) {
+            captured_holes = new Hole[next.get_capacity()];
+            hit_lines = new Line[next.get_capacity()];
+            hit_walls = new Tile[next.get_capacity() * Ball.MAX_WALL_CONTACTS];
+            hit_wall_counts = new int[next.get_capacity()];
+            order = new int[next.get_capacity()];
+        }
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (scratch.length < chunks) {
+            scratch = Arrays.copyOf(scratch, chunks);
+        }
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            if (scratch[chunk] == null) {
+                scratch[chunk] = new Ball(balls);
+                scratch[chunk].deferred = true;
+            }
+        }
+    }
+
+    /**
+     * Moves the balls from one slot up to another, recording the results.
+     *
+     * @param world The game world.
+     * @param balls The balls of the world.
+     * @param from  The first slot.
+     * @param to    The slot after the last one.
+     */
+    private void compute(GameWorld world, BallStore balls, int from, int to) {
+        Ball ball = scratch[from / CHUNK_SIZE];
+        for (int slot = from; slot < to; slot++) {
+            balls.read(slot, ball);
+            ball.captured_hole = null;
+            ball.hit_line = null;
+            ball.hit_wall_count = 0;
+            ball.move(world);
+            next.write(slot, ball);
+            captured_holes[slot] = ball.in_hole_flag ? ball.captured_hole : null;
+            hit_lines[slot] = ball.hit_line;
+            hit_wall_counts[slot] = ball.hit_wall_count;
+            System.arraycopy(ball.hit_walls, 0, hit_walls, slot * Ball.MAX_WALL_CONTACTS, ball.hit_wall_count);
+        }
+    }
+
+    /**
+     * Applies the results in the order of the sequential update, where a
+     * removed ball is replaced by the last one, which is visited next.
+     *
+     * @param world The game world.
+     * @param balls The balls of the world.
+     * @param count The number of balls at the start of the tick.
+     */
+    private void commit(GameWorld world, BallStore balls, int count) {
+        LineList lines = world.get_lines();
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+
+        int i = 0;
+        while (i < balls.size()) {
+            int slot = order[i];
+            Line hit_line = hit_lines[slot];
+            boolean captured;
+
+            if (hit_line != null && !lines.contains(hit_line)) {
+                recomputed++;
+                Ball ball = balls.view(i);
+                ball.move(world);
+                captured = ball.in_hole_flag;
+            } else {
+                balls.copy_slot(next, slot, i);
+                for (int k = 0; k < hit_wall_counts[slot]; k++) {
+                    world.hit_breakable(hit_walls[slot * Ball.MAX_WALL_CONTACTS + k]);
+                }
+                Hole hole = captured_holes[slot];
+                captured = hole != null;
+                if (captured) {
+                    balls.view(i).update_the_score(hole, world);
+                } else if (hit_line != null) {
+                    lines.remove(hit_line);
+                }
+            }
+
+            if (captured) {
+                order[i] = order[balls.size() - 1];
+                balls.remove(i);
+            } else {
+                i++;
+            }
+        }
+
+        Arrays.fill(captured_holes, 0, count, null);
+        Arrays.fill(hit_lines, 0, count, null);
+        Arrays.fill(hit_walls, 0, count * Ball.MAX_WALL_CONTACTS, null);
+    }
+
+    /**
+     * The getter method for the number of balls that had to be moved again
+     * because an earlier ball removed their line.
+     */
+    public long get_recomputed() {
+        return this.recomputed;
+    }
+
+    /**
+     * Splits the slots in halves until each task has at most one chunk, keeping
+     * the task boundaries on chunk boundaries so that each chunk has its own
+     * scratch ball.
+     */
+    private class ComputeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final GameWorld world;
+        private final BallStore balls;
+        private final int from;
+        private final int to;
+
+        ComputeTask(GameWorld world, BallStore balls, int from, int to) {
+            this.world = world;
+            this.balls = balls;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            if (chunks <= 1) {
+                BallUpdater.this.compute(world, balls, from, to);
+                return;
+            }
+            int middle = from + (chunks / 2) * CHUNK_SIZE;
+            invokeAll(new ComputeTask(world, balls, from, middle), new ComputeTask(world, balls, middle, to));
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package inkball;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Plays many headless games per level to help balance the configuration.
+ * Every game runs in a GameWorld of its own without a PApplet, ticking as fast
+ * as the CPU allows until the level is won or lost, while a line policy plays
+ * the part of the player. Games are spread over a thread pool and each one is
+ * seeded from its level and number, so a batch with the same seed gives the
+ * same statistics however many threads it runs on.
+ *
+ * <pre>
+ * gradle batch -PbatchArgs="--games 5000 --policy deflect --out balance.csv"
+ * </pre>
+ *
+ * Options are --config (config.json), --levels (all, or e.g. 0,2), --games
+ * (1000), --threads (one per core), --policy (none, random or deflect),
+ * --seed (1) and --out (batch.csv).
+ */
+public class BatchRunner {
+
+    public static final String[] POLICIES = { "none", "random", "deflect" };
+
+    // The interior of the board inside the border walls, in pixels.
+    private static final int BOARD_MIN_X = App.CELLSIZE;
+    private static final int BOARD_MIN_Y = App.TOPBAR + App.CELLSIZE;
+    private static final int BOARD_MAX_X = App.Tile_SIZE * App.CELLSIZE - App.CELLSIZE;
+    private static final int BOARD_MAX_Y = App.TOPBAR + App.Tile_SIZE * App.CELLSIZE - App.CELLSIZE;
+
+    private final String config_path;
+    private final int threads;
+
+    /**
+     * Constructs a new BatchRunner object.
+     *
+     * @param config_path The path to the JSON configuration file.
+     * @param threads     The number of games to play at the same time.
+     */
+    public BatchRunner(String config_path, int threads) {
+        this.config_path = config_path;
+        this.threads = threads;
+    }
+
+    /**
+     * Plays a number of games on each of the given levels.
+     *
+     * @param levels The level numbers to play.
+     * @param games  The number of games per level.
+     * @param policy The name of the line policy standing in for the player.
+     * @param seed   The seed the seeds of the games are derived from.
+     * @return The statistics of each level, in the order of the levels.
+     * @throws InterruptedException If interrupted while waiting for the games.
+     */
+    public ArrayList<LevelStats> run(int[] levels, int games, String policy, long seed)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            ArrayList<ArrayList<Future<GameResult>>> futures = new ArrayList<>();
+            for (int level : levels) {
+                ArrayList<Future<GameResult>> level_futures = new ArrayList<>();
+                for (int game = 0; game < games; game++) {
+                    long game_seed = seed * 1_000_003L + (long) level * games + game;
+                    level_futures.add(pool.submit(() -> play(config_path, level, policy, game_seed)));
+                }
+                futures.add(level_futures);
+            }
+
+            ArrayList<LevelStats> stats = new ArrayList<>();
+            for (int i = 0; i < levels.length; i++) {
+                GameResult[] results = new GameResult[games];
+                for (int game = 0; game < games; game++) {
+                    try {
+                        results[game] = futures.get(i).get(game).get();
+                    } catch (ExecutionException e) {
+                        throw new RuntimeException("Game " + game + " of level " + levels[i] + " failed",
+                                e.getCause());
+                    }
+                }
+                stats.add(new LevelStats(levels[i], policy, results));
+            }
+            return stats;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one game of a level from start to end.
+     *
+     * @param config_path The path to the JSON configuration file.
+     * @param level       The level number.
+     * @param policy      The name of the line policy standing in for the player.
+     * @param seed        The seed of the game.
+     * @return The outcome of the game.
+     */
+    public static GameResult play(String config_path, int level, String policy, long seed) {
+        GameWorld world = new GameWorld(config_path, seed);
+        world.set_level_number(level);
+        // the games already fill every core, so each one moves its balls itself.
+        world.set_parallel_threshold(Integer.MAX_VALUE);
+        world.load_level();
+
+        LinePolicy player = policy_of(policy);
+        Random random = new Random(~seed);
+        long max_ticks = (long) (world.get_time() + 1) * GameWorld.TICK_RATE;
+        long ticks = 0;
+        while (!world.get_is_won() && !world.get_is_lost() && ticks < max_ticks) {
+            player.act(world, random, ticks);
+            world.tick();
+            ticks++;
+        }
+
+        boolean won = world.get_is_won();
+        int time_left = world.get_time();
+        // the win animation turns the time left into score.
+        while (world.get_is_won() && world.get_time() > 0) {
+            world.tick();
+        }
+        return new GameResult(won, world.get_score(), ticks, time_left, world.get_lines().size());
+    }
+
+    /**
+     * Returns the line policy with the given name.
+     *
+     * @param name The name of the policy.
+     * @return The policy.
+     */
+    public static LinePolicy policy_of(String name) {
+        switch (name) {
+            case "none":
+                return (world, random, tick) -> {
+                };
+            case "random":
+                return BatchRunner::draw_random;
+            case "deflect":
+                return BatchRunner::draw_deflect;
+            default:
+                throw new IllegalArgumentException("Unknown policy " + name + ", expected one of "
+                        + String.join(", ", POLICIES));
+        }
+    }
+
+    /**
+     * A player scribbling short strokes at random places twice a second.
+     */
+    private static void draw_random(GameWorld world, Random random, long tick) {
+        if (tick % (GameWorld.TICK_RATE / 2) != 0 || world.get_lines().size() >= 8) {
+            return;
+        }
+        Line line = world.new_line();
+        int x = BOARD_MIN_X + random.nextInt(BOARD_MAX_X - BOARD_MIN_X);
+        int y = BOARD_MIN_Y + random.nextInt(BOARD_MAX_Y - BOARD_MIN_Y);
+        int segments = 3 + random.nextInt(4);
+        for (int i = 0; i < segments; i++) {
+            int nx = Math.max(BOARD_MIN_X, Math.min(BOARD_MAX_X, x + random.nextInt(41) - 20));
+            int ny = Math.max(BOARD_MIN_Y, Math.min(BOARD_MAX_Y, y + random.nextInt(41) - 20));
+            line.add_segment(x, y, nx, ny);
+            x = nx;
+            y = ny;
+        }
+        world.add_line(line);
+    }
+
+    /**
+     * A player that twice a second picks a ball and draws a short line in its
+     * path, turned so that the ball bounces towards the nearest hole that
+     * scores for it.
+     */
+    private static void draw_deflect(GameWorld world, Random random, long tick) {
+        BallStore balls = world.get_balls();
+        if (tick % (GameWorld.TICK_RATE / 2) != 0 || balls.size() == 0 || world.get_lines().size() >= 4) {
+            return;
+        }
+        int slot = random.nextInt(balls.size());
+        float speed_x = balls.get_speed_x(slot);
+        float speed_y = balls.get_speed_y(slot);
+        float speed = (float) Math.sqrt(speed_x * speed_x + speed_y * speed_y);
+        if (speed == 0) {
+            return;
+        }
+        // where the ball's centre will be in a quarter of a second.
+        float lead = GameWorld.TICK_RATE / 4;
+        float hit_x = balls.get_x(slot) + Ball.BALL_SIZE / 2 + speed_x * lead;
+        float hit_y = balls.get_y(slot) + Ball.BALL_SIZE / 2 + speed_y * lead;
+
+        Hole target = null;
+        float target_distance = Float.MAX_VALUE;
+        char type = balls.get_type(slot);
+        for (Hole hole : world.get_holes()) {
+            if (hole.get_hole_type() != type && hole.get_hole_type() != '0' && type != '0') {
+                continue;
+            }
+            float distance = (float) Math.hypot(hole.x + 32 - hit_x, hole.y + 32 - hit_y);
+            if (distance < target_distance) {
+                target = hole;
+                target_distance = distance;
+            }
+        }
+        if (target == null || target_distance < 1) {
+            return;
+        }
+
+        // a line reflects the ball about its normal, so the normal has to lie
+        // along the difference of the incoming and the wanted direction.
+        float normal_x = speed_x / speed - (target.x + 32 - hit_x) / target_distance;
+        float normal_y = speed_y / speed - (target.y + 32 - hit_y) / target_distance;
+        float normal = (float) Math.sqrt(normal_x * normal_x + normal_y * normal_y);
+        if (normal < 0.1f) {
+            // already heading for the hole.
+            return;
+        }
+        float half_x = -normal_y / normal * 20;
+        float half_y = normal_x / normal * 20;
+        int x1 = Math.round(hit_x - half_x);
+        int y1 = Math.round(hit_y - half_y);
+        int x2 = Math.round(hit_x + half_x);
+        int y2 = Math.round(hit_y + half_y);
+        if (!on_board(x1, y1) || !on_board(x2, y2)) {
+            return;
+        }
+        Line line = world.new_line();
+        line.add_segment(x1, y1, x2, y2);
+        world.add_line(line);
+    }
+
+    private static boolean on_board(int x, int y) {
+        return x >= BOARD_MIN_X && x <= BOARD_MAX_X && y >= BOARD_MIN_Y && y <= BOARD_MAX_Y;
+    }
+
+    /**
+     * Writes the statistics of each level as one CSV row, with times in seconds.
+     *
+     * @param stats  The statistics to write.
+     * @param writer The writer to write to.
+     * @throws IOException If writing fails.
+     */
+    public static void write_csv(List<LevelStats> stats, Writer writer) throws IOException {
+        writer.write("level,policy,games,wins,win_rate,score_mean,score_min,score_p10,score_p50,score_p90,"
+                + "score_max,clear_time_mean,clear_time_p50,clear_time_p90,lines_left_mean\n");
+        for (LevelStats level : stats) {
+            writer.write(String.format(Locale.ROOT,
+                    "%d,%s,%d,%d,%.4f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.3f,%.3f,%.3f,%.2f\n",
+                    level.level, level.policy, level.games, level.wins, level.get_win_rate(),
+                    level.score_mean, level.get_score_percentile(0), level.get_score_percentile(10),
+                    level.get_score_percentile(50), level.get_score_percentile(90),
+                    level.get_score_percentile(100), level.clear_time_mean, level.get_clear_time_percentile(50),
+                    level.get_clear_time_percentile(90), level.lines_left_mean));
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String config_path = "config.json";
+        String level_list = null;
+        int games = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String policy = "deflect";
+        long seed = 1;
+        String out = "batch.csv";
+
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--config":
+                    config_path = value;
+                    break;
+                case "--levels":
+                    level_list = value;
+                    break;
+                case "--games":
+                    games = Integer.parseInt(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--policy":
+                    policy = value;
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--out":
+                    out = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+            }
+        }
+        policy_of(policy);
+
+        int[] levels;
+        if (level_list == null) {
+            levels = new int[GameConfig.current(config_path).get().get_level_count()];
+            for (int i = 0; i < levels.length; i++) {
+                levels[i] = i;
+            }
+        } else {
+            String[] parts = level_list.split(",");
+            levels = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                levels[i] = Integer.parseInt(parts[i].trim());
+            }
+        }
+
+        long start = System.nanoTime();
+        ArrayList<LevelStats> stats = new BatchRunner(config_path, threads).run(levels, games, policy, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        try (Writer writer = new BufferedWriter(new FileWriter(out))) {
+            write_csv(stats, writer);
+        }
+        for (LevelStats level : stats) {
+            System.out.printf(Locale.ROOT, "level %d: won %d of %d (%.1f%%), mean score %.1f%n", level.level,
+                    level.wins, level.games, level.get_win_rate() * 100, level.score_mean);
+        }
+        System.out.printf(Locale.ROOT, "%d games in %.1f s on %d threads, written to %s%n",
+                levels.length * games, seconds, threads, out);
+    }
+
+    /**
+     * Stands in for the player by drawing lines before a tick.
+     */
+    public interface LinePolicy {
+
+        /**
+         * Draws any lines the player would draw before the given tick.
+         *
+         * @param world  The game world.
+         * @param random The random numbers of this player.
+         * @param tick   The number of ticks played so far.
+         */
+        void act(GameWorld world, Random random, long tick);
+    }
+
+    /**
+     * The outcome of one game.
+     */
+    public static class GameResult {
+
+        public final boolean won;
+        public final float score;
+        public final long ticks;
+        public final int time_left;
+        public final int lines_left;
+
+        /**
+         * Constructs a new GameResult object.
+         *
+         * @param won        Whether the level was won.
+         * @param score      The score at the end, including the time bonus of a win.
+         * @param ticks      The number of ticks until the level was won or lost.
+         * @param time_left  The level time left when it ended, in seconds.
+         * @param lines_left The number of lines left on the board.
+         */
+        public GameResult(boolean won, float score, long ticks, int time_left, int lines_left) {
+            this.won = won;
+            this.score = score;
+            this.ticks = ticks;
+            this.time_left = time_left;
+            this.lines_left = lines_left;
+        }
+    }
+
+    /**
+     * The aggregate statistics of the games played on one level.
+     */
+    public static class LevelStats {
+
+        public final int level;
+        public final String policy;
+        public final int games;
+        public final int wins;
+        public final double score_mean;
+        public final double clear_time_mean;
+        public final double lines_left_mean;
+
+        // sorted ascending, for the percentiles.
+        private final float[] scores;
+        private final float[] clear_times;
+
+        /**
+         * Constructs a new LevelStats object.
+         *
+         * @param level   The level number.
+         * @param policy  The name of the line policy the games were played with.
+         * @param results The outcomes of the games.
+         */
+        public LevelStats(int level, String policy, GameResult[] results) {
+            this.level = level;
+            this.policy = policy;
+            this.games = results.length;
+
+            int win_count = 0;
+            double score_total = 0;
+            double lines_total = 0;
+            for (GameResult result : results) {
+                if (result.won) {
+                    win_count++;
+                }
+                score_total += result.score;
+                lines_total += result.lines_left;
+            }
+            this.wins = win_count;
+
+            this.scores = new float[games];
+            this.clear_times = new float[wins];
+            double clear_total = 0;
+            int k = 0;
+            for (int i = 0; i < games; i++) {
+                scores[i] = results[i].score;
+                if (results[i].won) {
+                    clear_times[k] = (float) results[i].ticks / GameWorld.TICK_RATE;
+                    clear_total += clear_times[k];
+                    k++;
+                }
+            }
+            Arrays.sort(scores);
+            Arrays.sort(clear_times);
+
+            this.score_mean = games == 0 ? 0 : score_total / games;
+            this.lines_left_mean = games == 0 ? 0 : lines_total / games;
+            this.clear_time_mean = wins == 0 ? Double.NaN : clear_total / wins;
+        }
+
+        public double get_win_rate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        /**
+         * Returns a percentile of the final scores by the nearest rank.
+         *
+         * @param p The percentile, from 0 to 100.
+         * @return The score, or NaN if no games were played.
+         */
+        public double get_score_percentile(double p) {
+            return percentile(scores, p);
+        }
+
+        /**
+         * Returns a percentile of the time taken to clear the level, over the
+         * games that were won.
+         *
+         * @param p The percentile, from 0 to 100.
+         * @return The time in seconds, or NaN if no game was won.
+         */
+        public double get_clear_time_percentile(double p) {
+            return percentile(clear_times, p);
+        }
+
+        private static double percentile(float[] sorted, double p) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            int rank = (int) Math.ceil(p / 100 * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+        }
+    }
+}
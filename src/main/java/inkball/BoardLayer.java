@@ -0,0 +1,180 @@
+package inkball;
+
+import processing.core.PApplet;
+import processing.core.PGraphics;
+import processing.core.PImage;
+
+/**
+ * An offscreen image of the static tiles and walls of the board.
+ * The whole board is rasterised once when a level is loaded and then drawn with
+ * a single image() call per frame. Cells that change afterwards are marked
+ * dirty and only those cells are rasterised again.
+ */
+public class BoardLayer {
+
+    private PApplet app;
+    private SpriteCache sprites;
+    private PGraphics layer;
+
+    private Tile[][] board;
+    private boolean[][] dirty;
+    private int dirty_count;
+    private PImage[][] overlays;
+
+    private long tiles_drawn;
+
+    /**
+     * Constructs a new BoardLayer object.
+     *
+     * @param app     The sketch used to create the offscreen image and draw it.
+     * @param sprites The sprite cache providing the tile images.
+     */
+    public BoardLayer(PApplet app, SpriteCache sprites) {
+        this.app = app;
+        this.sprites = sprites;
+        int size = App.Tile_SIZE * App.CELLSIZE;
+        this.layer = app.createGraphics(size, size);
+        this.dirty = new boolean[App.Tile_SIZE][App.Tile_SIZE];
+        this.overlays = new PImage[App.Tile_SIZE][App.Tile_SIZE];
+    }
+
+    /**
+     * Rasterises every cell of a newly loaded board.
+     *
+     * @param board The tiles of the level.
+     */
+    public void load(Tile[][] board) {
+        this.board = board;
+        for (int i = 0; i < App.Tile_SIZE; i++) {
+            for (int j = 0; j < App.Tile_SIZE; j++) {
+                overlays[i][j] = null;
+                dirty[i][j] = true;
+            }
+        }
+        dirty_count = App.Tile_SIZE * App.Tile_SIZE;
+        redraw_dirty();
+    }
+
+    /**
+     * Marks a cell to be rasterised again before the next draw.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    public void mark_dirty(int row, int col) {
+        if (!dirty[row][col]) {
+            dirty[row][col] = true;
+            dirty_count++;
+        }
+    }
+
+    /**
+     * Draws an image on top of a cell until the overlays are cleared.
+     *
+     * @param row   The row of the cell.
+     * @param col   The column of the cell.
+     * @param image The image to draw over the tile.
+     */
+    public void set_overlay(int row, int col, PImage image) {
+        if (overlays[row][col] != image) {
+            overlays[row][col] = image;
+            mark_dirty(row, col);
+        }
+    }
+
+    /**
+     * Removes every overlay, restoring the plain tiles underneath.
+     */
+    public void clear_overlays() {
+        for (int i = 0; i < App.Tile_SIZE; i++) {
+            for (int j = 0; j < App.Tile_SIZE; j++) {
+                if (overlays[i][j] != null) {
+                    overlays[i][j] = null;
+                    mark_dirty(i, j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rasterises the dirty cells and draws the layer below the top bar.
+     */
+    public void draw() {
+        if (dirty_count > 0) {
+            redraw_dirty();
+        }
+        app.image(layer, 0, App.TOPBAR);
+    }
+
+    /**
+     * Rasterises every dirty cell into the offscreen image.
+     */
+    private void redraw_dirty() {
+        layer.beginDraw();
+        for (int i = 0; i < App.Tile_SIZE; i++) {
+            for (int j = 0; j < App.Tile_SIZE; j++) {
+                if (!dirty[i][j]) {
+                    continue;
+                }
+                dirty[i][j] = false;
+                Tile t = board[i][j];
+                if (t == null) {
+                    continue;
+                }
+                int x = j * App.CELLSIZE;
+                int y = i * App.CELLSIZE;
+                layer.image(tile_image(i, j), x, y);
+                if (overlays[i][j] != null) {
+                    layer.image(overlays[i][j], x, y);
+                }
+                tiles_drawn++;
+            }
+        }
+        layer.endDraw();
+        dirty_count = 0;
+    }
+
+    /**
+     * Picks the image for a tile of the board.
+     *
+     * @param row The row of the tile.
+     * @param col The column of the tile.
+     * @return The image to draw for the tile.
+     */
+    private PImage tile_image(int row, int col) {
+        Tile t = board[row][col];
+        PImage imageToDraw = sprites.tile();
+        if (!t.is_ball && !t.is_hole) {
+            if (t.is_breakable) {
+                imageToDraw = sprites.broken_wall(Broken_Wall.WALL_TYPES.indexOf(t.get_type()));
+            } else if (t.get_type() == 'X') {
+                imageToDraw = sprites.wall(0);
+            } else if (t.get_type() == '1') {
+                imageToDraw = sprites.wall(1);
+            } else if (t.get_type() == '2') {
+                imageToDraw = sprites.wall(2);
+            } else if (t.get_type() == '3') {
+                imageToDraw = sprites.wall(3);
+            } else if (t.get_type() == '4') {
+                imageToDraw = sprites.wall(4);
+            } else if (t.get_type() == 'B') {
+                Tile nextTile = board[row][col + 1];
+                if (nextTile != null) {
+                    nextTile.set_ball();
+                }
+            } else if (t.get_type() == 'S') {
+                imageToDraw = sprites.entrypoint();
+            }
+        }
+        return imageToDraw;
+    }
+
+    /**
+     * Returns the number of cells rasterised since the layer was created.
+     *
+     * @return The number of cells drawn into the offscreen image.
+     */
+    public long get_tiles_drawn() {
+        return this.tiles_drawn;
+    }
+}
@@ -1,18 +1,53 @@
 package inkball;
 
+/**
+ * A wall tile that breaks after it has been hit HITS_TO_BREAK times.
+ * In a level layout a breakable wall is written as the lowercase initial of its
+ * colour, or 'x' for grey, and it colours the balls hitting it like the wall of
+ * the same colour does.
+ */
 public class Broken_Wall extends Sprite {
+
+    public static final int HITS_TO_BREAK = 3;
+
+    // the layout character of each breakable wall and the wall type it behaves as.
+    public static final String LAYOUT_TYPES = "xobgy";
+    public static final String WALL_TYPES = "X1234";
+
     private int hitCount;
     private boolean isDestroyed;
 
+    /**
+     * Constructs a new Broken_Wall object.
+     *
+     * @param x    The x-index of the wall on the game grid.
+     * @param y    The y-index of the wall on the game grid.
+     * @param type The type of the wall it behaves as, 'X' or '1' to '4'.
+     */
     public Broken_Wall(int x, int y, char type) {
         super(x, y, type);
         this.hitCount = 0;
         this.isDestroyed = false;
     }
 
+    /**
+     * Returns the wall type a layout character stands for if it is a breakable
+     * wall.
+     *
+     * @param layout_type The character in the level layout.
+     * @return The wall type, or 0 if the character is not a breakable wall.
+     */
+    public static char wall_type(char layout_type) {
+        int index = LAYOUT_TYPES.indexOf(layout_type);
+        return index < 0 ? 0 : WALL_TYPES.charAt(index);
+    }
+
+    /**
+     * Records a ball bouncing off the wall.
+     */
     public void hit() {
         hitCount++;
-        if (hitCount >= 3) {
+        if (hitCount >= HITS_TO_BREAK) {
             isDestroyed = true;
         }
     }
@@ -0,0 +1,342 @@
+package inkball;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A level layout parsed once and kept for every later load of the level.
+ * The layout is held as one byte per tile plus tables of the balls, holes and
+ * spawners it places, each entry a column, a row and a colour. A level can be
+ * compiled ahead of time from its levelN.txt into a levelN.bin file holding
+ * exactly that, which is read through a memory-mapped FileChannel:
+ *
+ * <pre>
+ * int   magic "IKLV"
+ * byte  version
+ * byte  rows, byte cols
+ * byte  tile type per cell, row by row, 0 where the text had no character
+ * three tables for balls, holes and spawners:
+ *   short count, then count entries of byte col, byte row, byte colour
+ * </pre>
+ *
+ * load() caches the parsed level per path, so restarts and level changes only
+ * build fresh tiles from the bytes. The wall distance field of the layout is
+ * cached alongside, as it only depends on the walls.
+ */
+public class CompiledLevel {
+
+    // "IKLV"
+    public static final int MAGIC = 0x494B4C56;
+    public static final int VERSION = 1;
+
+    private static final ConcurrentHashMap<String, CompiledLevel> CACHE = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int cols;
+    private final byte[] tiles;
+    private final int[] balls;
+    private final int[] holes;
+    private final int[] spawners;
+
+    // the source the level was read from and when it was last modified.
+    private File source;
+    private long source_modified;
+
+    private WallField wall_field;
+
+    private CompiledLevel(int rows, int cols, byte[] tiles, int[] balls, int[] holes, int[] spawners) {
+        this.rows = rows;
+        this.cols = cols;
+        this.tiles = tiles;
+        this.balls = balls;
+        this.holes = holes;
+        this.spawners = spawners;
+    }
+
+    /**
+     * Returns the level at the given path, reading it only if it is not cached
+     * yet or its file changed since. A compiled .bin file next to the layout is
+     * used when it is at least as new as the layout.
+     *
+     * @param level_file The path to the level layout.
+     * @return The level.
+     * @throws IOException If the level cannot be read.
+     */
+    public static CompiledLevel load(String level_file) throws IOException {
+        File text = new File(level_file);
+        File compiled = compiled_file(text);
+        File source = compiled.exists() && (!text.exists() || compiled.lastModified() >= text.lastModified())
+                ? compiled
+                : text;
+
+        CompiledLevel level = CACHE.get(level_file);
+        if (level != null && level.source.equals(source) && level.source_modified == source.lastModified()) {
+            return level;
+        }
+        level = source == compiled ? map(compiled) : parse(text);
+        level.source = source;
+        level.source_modified = source.lastModified();
+        CACHE.put(level_file, level);
+        return level;
+    }
+
+    /**
+     * Forgets every cached level.
+     */
+    public static void clear_cache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Returns the path of the compiled file for a layout: levelN.txt compiles
+     * to levelN.bin.
+     *
+     * @param text The layout file.
+     * @return The compiled file.
+     */
+    public static File compiled_file(File text) {
+        String name = text.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot < 0 ? name : name.substring(0, dot);
+        return new File(text.getParentFile(), base + ".bin");
+    }
+
+    /**
+     * Parses a text layout. Each character is a tile, except that a ball, hole
+     * or spawner takes the character after it as its colour, which becomes an
+     * empty tile.
+     *
+     * @param text The layout file.
+     * @return The level.
+     * @throws IOException If the file cannot be read.
+     */
+    public static CompiledLevel parse(File text) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(text))) {
+            String line = reader.readLine();
+            while (line != null) {
+                lines.add(line);
+                line = reader.readLine();
+            }
+        }
+
+        int cols = 0;
+        for (String line : lines) {
+            cols = Math.max(cols, line.length());
+        }
+        int rows = lines.size();
+        byte[] tiles = new byte[rows * cols];
+        int[][] tables = new int[3][];
+        int[] sizes = new int[3];
+        for (int i = 0; i < 3; i++) {
+            tables[i] = new int[3 * 4];
+        }
+
+        for (int row = 0; row < rows; row++) {
+            String line = lines.get(row);
+            for (int col = 0; col < line.length(); col++) {
+                char tile_type = line.charAt(col);
+                tiles[row * cols + col] = (byte) tile_type;
+                int table = tile_type == 'B' ? 0 : tile_type == 'H' ? 1 : tile_type == 'S' ? 2 : -1;
+                if (table >= 0) {
+                    if (sizes[table] == tables[table].length) {
+                        tables[table] = Arrays.copyOf(tables[table], sizes[table] * 2);
+                    }
+                    tables[table][sizes[table]++] = col;
+                    tables[table][sizes[table]++] = row;
+                    tables[table][sizes[table]++] = line.charAt(col + 1);
+                    tiles[row * cols + col + 1] = ' ';
+                    col++;
+                }
+            }
+        }
+        return new CompiledLevel(rows, cols, tiles, Arrays.copyOf(tables[0], sizes[0]),
+                Arrays.copyOf(tables[1], sizes[1]), Arrays.copyOf(tables[2], sizes[2]));
+    }
+
+    /**
+     * Reads a compiled level through a memory-mapped file.
+     *
+     * @param compiled The compiled file.
+     * @return The level.
+     * @throws IOException If the file cannot be read or is not a compiled level.
+     */
+    public static CompiledLevel map(File compiled) throws IOException {
+        try (FileChannel channel = FileChannel.open(compiled.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(compiled + " is not a compiled level");
+            }
+            int version = buffer.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IOException(compiled + " has unsupported version " + version);
+            }
+            int rows = buffer.get() & 0xFF;
+            int cols = buffer.get() & 0xFF;
+            byte[] tiles = new byte[rows * cols];
+            buffer.get(tiles);
+            int[] balls = read_table(buffer);
+            int[] holes = read_table(buffer);
+            int[] spawners = read_table(buffer);
+            return new CompiledLevel(rows, cols, tiles, balls, holes, spawners);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(compiled + " is truncated", e);
+        }
+    }
+
+    private static int[] read_table(MappedByteBuffer buffer) {
+        int count = buffer.getShort() & 0xFFFF;
+        int[] table = new int[count * 3];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = buffer.get() & 0xFF;
+        }
+        return table;
+    }
+
+    /**
+     * Writes the level in the compiled format.
+     *
+     * @param compiled The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(File compiled) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(compiled)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(rows);
+            out.writeByte(cols);
+            out.write(tiles);
+            write_table(out, balls);
+            write_table(out, holes);
+            write_table(out, spawners);
+        }
+    }
+
+    private static void write_table(DataOutputStream out, int[] table) throws IOException {
+        out.writeShort(table.length / 3);
+        for (int value : table) {
+            out.writeByte(value);
+        }
+    }
+
+    /**
+     * Fills a board with fresh tiles for the layout. Cells outside the layout
+     * are left alone. A breakable wall becomes a tile of the wall type it
+     * behaves as.
+     *
+     * @param board The board to fill.
+     */
+    public void fill_board(Tile[][] board) {
+        fill_board(board, null);
+    }
+
+    /**
+     * Fills a board with tiles for the layout taken from a pool.
+     *
+     * @param board The board to fill.
+     * @param pool  The pool of tiles, or null to create fresh ones.
+     */
+    public void fill_board(Tile[][] board, ObjectPool<Tile> pool) {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                char tile_type = (char) tiles[row * cols + col];
+                if (tile_type == 0) {
+                    continue;
+                }
+                char breakable_type = Broken_Wall.wall_type(tile_type);
+                if (breakable_type != 0) {
+                    Tile tile = new_tile(pool, col, row, breakable_type);
+                    tile.set_breakable();
+                    board[row][col] = tile;
+                    continue;
+                }
+                Tile tile = new_tile(pool, col, row, tile_type);
+                if (tile_type == 'H') {
+                    tile.set_hole();
+                } else if (tile_type == 'S') {
+                    tile.set_spawner();
+                } else if (tile_type == 'X' || tile_type == '1' || tile_type == '2' || tile_type == '3'
+                        || tile_type == '4') {
+                    tile.set_wall();
+                }
+                board[row][col] = tile;
+            }
+        }
+    }
+
+    private static Tile new_tile(ObjectPool<Tile> pool, int col, int row, char tile_type) {
+        if (pool == null) {
+            return new Tile(col, row, tile_type);
+        }
+        Tile tile = pool.acquire();
+        tile.reset(col, row, tile_type);
+        return tile;
+    }
+
+    /**
+     * Returns the wall distance field of the layout, building it the first time.
+     * Its tiles are the level's own, so a world copies it onto its board.
+     *
+     * @return The field.
+     */
+    public synchronized WallField get_wall_field() {
+        if (wall_field == null) {
+            Tile[][] board = new Tile[Math.max(rows, App.Tile_SIZE)][Math.max(cols, App.Tile_SIZE)];
+            fill_board(board);
+            wall_field = new WallField();
+            wall_field.build(board);
+        }
+        return wall_field;
+    }
+
+    /**
+     * The getter methods for the layout. Each table holds a column, a row and a
+     * colour per entry, in the order they appear in the layout.
+     */
+    public int get_rows() {
+        return this.rows;
+    }
+
+    public int get_cols() {
+        return this.cols;
+    }
+
+    public char get_tile(int row, int col) {
+        return (char) tiles[row * cols + col];
+    }
+
+    public int[] get_balls() {
+        return this.balls;
+    }
+
+    public int[] get_holes() {
+        return this.holes;
+    }
+
+    public int[] get_spawners() {
+        return this.spawners;
+    }
+
+    /**
+     * Compiles each given layout into a .bin file next to it.
+     *
+     * @param args The layout files, levelN.txt.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: CompiledLevel <level.txt>...");
+            System.exit(1);
+        }
+        for (String arg : args) {
+            File text = new File(arg);
+            File compiled = compiled_file(text);
+            parse(text).write(compiled);
+            System.out.println(text + " -> " + compiled + " (" + compiled.length() + " bytes)");
+        }
+    }
+}
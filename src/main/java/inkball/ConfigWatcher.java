@@ -0,0 +1,93 @@
+package inkball;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Watches a configuration file and publishes a new GameConfig whenever the
+ * file is saved. The watch runs on a daemon thread of its own. A save that
+ * does not parse, such as a half-written file, is reported and the previous
+ * configuration stays in use until the next save.
+ */
+public class ConfigWatcher implements Closeable {
+
+    private final Path file;
+    private final AtomicReference<GameConfig> config;
+    private final WatchService watcher;
+    private final Thread thread;
+
+    private volatile long reloads;
+
+    /**
+     * Constructs a new ConfigWatcher object and starts watching.
+     *
+     * @param configPath The path to the JSON configuration file.
+     * @throws IOException If the file's directory cannot be watched.
+     */
+    public ConfigWatcher(String configPath) throws IOException {
+        this.file = Paths.get(configPath).toAbsolutePath();
+        this.config = GameConfig.current(configPath);
+        this.watcher = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        this.thread = new Thread(this::watch, "config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits for changes to the directory and reloads the configuration when
+     * one of them is the file, until the watcher is closed.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path && file.getFileName().equals(context)) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed.
+        }
+    }
+
+    /**
+     * Parses the file again and publishes the result.
+     */
+    private void reload() {
+        try {
+            config.set(GameConfig.load(file.toString()));
+            reloads++;
+        } catch (RuntimeException e) {
+            System.err.println("Could not reload " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            System.err.println("Could not stop watching " + file + ": " + e.getMessage());
+        }
+        thread.interrupt();
+    }
+
+    /**
+     * The getter method for the number of times the configuration was reloaded.
+     */
+    public long get_reloads() {
+        return this.reloads;
+    }
+}
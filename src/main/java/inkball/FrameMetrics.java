@@ -0,0 +1,371 @@
+package inkball;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Records where the time of each frame goes.
+ * Every phase of App.draw() is timed with System.nanoTime() into a histogram of
+ * power-of-two buckets, so recording a sample is a few array updates and never
+ * allocates. The ball, line and segment counts of the last frame and the
+ * number of bytes allocated by the drawing thread are kept alongside.
+ * The statistics cover a window of frames. At the end of each window they are
+ * appended to metrics.csv and metrics.jsonl in the dump directory, if one is
+ * set, and then reset.
+ */
+public class FrameMetrics {
+
+    public static final int TICKS = 0;
+    public static final int TOP_BAR = 1;
+    public static final int CANDIDATES = 2;
+    public static final int BOARD = 3;
+    public static final int HOLES = 4;
+    public static final int BALLS = 5;
+    public static final int LINES = 6;
+    public static final int FRAME = 7;
+    public static final int PHASES = 8;
+
+    public static final String[] PHASE_NAMES = { "ticks", "loadTopBar", "load_candidates_balls", "drawBoard",
+            "drawHoles", "drawBalls", "drawLines", "frame" };
+
+    // Bucket b counts samples from 2^b up to 2^(b + 1) nanoseconds, so the last
+    // bucket starts at about 2 seconds.
+    public static final int BUCKETS = 32;
+
+    private final int window_frames;
+    private File dump_dir;
+
+    private long[][] histograms = new long[PHASES][BUCKETS];
+    private long[] counts = new long[PHASES];
+    private long[] totals = new long[PHASES];
+    private long[] maxima = new long[PHASES];
+    private long[] last = new long[PHASES];
+
+    private long[] starts = new long[PHASES];
+    private long frame_start;
+
+    private int balls;
+    private int lines;
+    private int segments;
+
+    private com.sun.management.ThreadMXBean threads;
+    private long frame_start_allocated;
+    private long allocated;
+
+    private int frames;
+    private long window_start;
+    private int window_index;
+
+    /**
+     * Constructs a new FrameMetrics object.
+     *
+     * @param window_frames The number of frames the statistics cover before they
+     *                      are dumped and reset.
+     * @param dump_dir      The directory to write the statistics to, or null to
+     *                      keep them in memory only.
+     */
+    public FrameMetrics(int window_frames, File dump_dir) {
+        this.window_frames = window_frames;
+        this.dump_dir = dump_dir;
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory
+                    .getThreadMXBean();
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                this.threads = bean;
+            }
+        }
+        this.window_start = System.nanoTime();
+    }
+
+    /**
+     * Starts timing a frame.
+     */
+    public void begin_frame() {
+        frame_start = System.nanoTime();
+        frame_start_allocated = allocated_bytes();
+    }
+
+    /**
+     * Starts timing a phase of the frame. Each phase keeps its own start, so
+     * the timing of one phase may enclose another.
+     *
+     * @param phase The phase, such as BALLS.
+     */
+    public void begin(int phase) {
+        starts[phase] = System.nanoTime();
+    }
+
+    /**
+     * Stops timing a phase started by begin() with the same phase.
+     *
+     * @param phase The phase, such as BALLS.
+     */
+    public void end(int phase) {
+        record(phase, System.nanoTime() - starts[phase]);
+    }
+
+    /**
+     * Stops timing the frame and records what was on the board. Dumps and resets
+     * the statistics if the window is full.
+     *
+     * @param balls    The number of balls on the board.
+     * @param lines    The number of player-drawn lines.
+     * @param segments The number of segments over all lines.
+     */
+    public void end_frame(int balls, int lines, int segments) {
+        record(FRAME, System.nanoTime() - frame_start);
+        this.balls = balls;
+        this.lines = lines;
+        this.segments = segments;
+        allocated += allocated_bytes() - frame_start_allocated;
+        frames++;
+
+        if (frames >= window_frames) {
+            if (dump_dir != null) {
+                dump();
+            }
+            reset();
+        }
+    }
+
+    /**
+     * Adds one sample to the histogram of a phase.
+     *
+     * @param phase The phase, such as BALLS.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(int phase, long nanos) {
+        histograms[phase][bucket_of(nanos)]++;
+        counts[phase]++;
+        totals[phase] += nanos;
+        maxima[phase] = Math.max(maxima[phase], nanos);
+        last[phase] = nanos;
+    }
+
+    /**
+     * Clears the statistics and starts a new window.
+     */
+    public void reset() {
+        for (int phase = 0; phase < PHASES; phase++) {
+            Arrays.fill(histograms[phase], 0);
+        }
+        Arrays.fill(counts, 0);
+        Arrays.fill(totals, 0);
+        Arrays.fill(maxima, 0);
+        allocated = 0;
+        frames = 0;
+        window_start = System.nanoTime();
+        window_index++;
+    }
+
+    /**
+     * Returns the histogram bucket of a duration.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The bucket index.
+     */
+    public static int bucket_of(long nanos) {
+        if (nanos < 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /**
+     * Estimates a percentile of a phase from its histogram. The estimate is the
+     * upper end of the bucket the percentile falls into, capped at the largest
+     * sample.
+     *
+     * @param phase    The phase, such as BALLS.
+     * @param fraction The percentile as a fraction, such as 0.95.
+     * @return The estimated duration in nanoseconds, or 0 without samples.
+     */
+    public long percentile(int phase, double fraction) {
+        long target = (long) Math.ceil(counts[phase] * fraction);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += histograms[phase][b];
+            if (seen >= Math.max(1, target) && histograms[phase][b] > 0) {
+                return Math.min((1L << (b + 1)) - 1, maxima[phase]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the mean duration of a phase over the window.
+     *
+     * @param phase The phase, such as BALLS.
+     * @return The mean in nanoseconds, or 0 without samples.
+     */
+    public double mean(int phase) {
+        return counts[phase] == 0 ? 0 : (double) totals[phase] / counts[phase];
+    }
+
+    /**
+     * Returns the bytes allocated per second by the drawing thread over the
+     * window, or -1 if the JVM cannot measure it.
+     *
+     * @return The allocation rate in bytes per second.
+     */
+    public double allocation_rate() {
+        if (threads == null) {
+            return -1;
+        }
+        double seconds = (System.nanoTime() - window_start) / 1e9;
+        return seconds <= 0 ? 0 : allocated / seconds;
+    }
+
+    private long allocated_bytes() {
+        if (threads == null) {
+            return 0;
+        }
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Appends the statistics of the window to metrics.csv and metrics.jsonl in
+     * the dump directory. If writing fails, dumping is switched off.
+     */
+    public void dump() {
+        try {
+            dump_dir.mkdirs();
+            File csv = new File(dump_dir, "metrics.csv");
+            boolean new_file = !csv.exists() || csv.length() == 0;
+            try (Writer writer = new BufferedWriter(new FileWriter(csv, true))) {
+                if (new_file) {
+                    write_csv_header(writer);
+                }
+                write_csv_row(writer);
+            }
+            try (Writer writer = new BufferedWriter(new FileWriter(new File(dump_dir, "metrics.jsonl"), true))) {
+                write_json(writer);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            dump_dir = null;
+        }
+    }
+
+    /**
+     * Writes the CSV header matching write_csv_row().
+     *
+     * @param writer The writer to write to.
+     * @throws IOException If writing fails.
+     */
+    public void write_csv_header(Writer writer) throws IOException {
+        StringBuilder header = new StringBuilder("window,frames,balls,lines,segments,alloc_bytes_per_s");
+        for (String name : PHASE_NAMES) {
+            header.append(',').append(name).append("_mean_us");
+            header.append(',').append(name).append("_p50_us");
+            header.append(',').append(name).append("_p95_us");
+            header.append(',').append(name).append("_max_us");
+        }
+        writer.write(header.append('\n').toString());
+    }
+
+    /**
+     * Writes the statistics of the window as one CSV row, with durations in
+     * microseconds.
+     *
+     * @param writer The writer to write to.
+     * @throws IOException If writing fails.
+     */
+    public void write_csv_row(Writer writer) throws IOException {
+        StringBuilder row = new StringBuilder();
+        row.append(window_index).append(',').append(frames).append(',').append(balls).append(',').append(lines)
+                .append(',').append(segments).append(',').append(format(allocation_rate()));
+        for (int phase = 0; phase < PHASES; phase++) {
+            row.append(',').append(format(mean(phase) / 1000));
+            row.append(',').append(format(percentile(phase, 0.5) / 1000.0));
+            row.append(',').append(format(percentile(phase, 0.95) / 1000.0));
+            row.append(',').append(format(maxima[phase] / 1000.0));
+        }
+        writer.write(row.append('\n').toString());
+    }
+
+    /**
+     * Writes the statistics of the window as one JSON object, including the raw
+     * histograms.
+     *
+     * @param writer The writer to write to.
+     * @throws IOException If writing fails.
+     */
+    public void write_json(Writer writer) throws IOException {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"window\":").append(window_index);
+        json.append(",\"frames\":").append(frames);
+        json.append(",\"balls\":").append(balls);
+        json.append(",\"lines\":").append(lines);
+        json.append(",\"segments\":").append(segments);
+        json.append(",\"alloc_bytes_per_s\":").append(format(allocation_rate()));
+        json.append(",\"phases\":{");
+        for (int phase = 0; phase < PHASES; phase++) {
+            if (phase > 0) {
+                json.append(',');
+            }
+            json.append('"').append(PHASE_NAMES[phase]).append("\":{");
+            json.append("\"count\":").append(counts[phase]);
+            json.append(",\"mean_ns\":").append(format(mean(phase)));
+            json.append(",\"p50_ns\":").append(percentile(phase, 0.5));
+            json.append(",\"p95_ns\":").append(percentile(phase, 0.95));
+            json.append(",\"p99_ns\":").append(percentile(phase, 0.99));
+            json.append(",\"max_ns\":").append(maxima[phase]);
+            json.append(",\"log2_histogram\":[");
+            for (int b = 0; b < BUCKETS; b++) {
+                if (b > 0) {
+                    json.append(',');
+                }
+                json.append(histograms[phase][b]);
+            }
+            json.append("]}");
+        }
+        json.append("}}");
+        writer.write(json.toString());
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * The getter methods for the recorded statistics.
+     */
+    public long get_count(int phase) {
+        return counts[phase];
+    }
+
+    public long get_max(int phase) {
+        return maxima[phase];
+    }
+
+    public long get_last(int phase) {
+        return last[phase];
+    }
+
+    public long get_bucket(int phase, int bucket) {
+        return histograms[phase][bucket];
+    }
+
+    public int get_frames() {
+        return frames;
+    }
+
+    public int get_balls() {
+        return balls;
+    }
+
+    public int get_lines() {
+        return lines;
+    }
+
+    public int get_segments() {
+        return segments;
+    }
+
+    public File get_dump_dir() {
+        return dump_dir;
+    }
+}
@@ -0,0 +1,170 @@
+package inkball;
+
+import processing.data.JSONArray;
+import processing.data.JSONObject;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The parsed contents of a configuration file. A GameConfig never changes
+ * once parsed, so one instance is shared by every world and thread using the
+ * same file. current() keeps the latest parse of each file in an
+ * AtomicReference; a ConfigWatcher swaps in a new GameConfig when the file
+ * changes, and worlds pick it up on their next tick.
+ */
+public class GameConfig {
+
+    private static final ConcurrentHashMap<String, AtomicReference<GameConfig>> CACHE = new ConcurrentHashMap<>();
+
+    private final List<LevelConfig> levels;
+    // indexed by BallColour ordinal. Colours missing from the file score 0.
+    private final float[] scoreFromHoleCapture;
+    private final float[] scoreFromWrongHole;
+
+    private GameConfig(List<LevelConfig> levels, float[] scoreFromHoleCapture, float[] scoreFromWrongHole) {
+        this.levels = Collections.unmodifiableList(levels);
+        this.scoreFromHoleCapture = scoreFromHoleCapture;
+        this.scoreFromWrongHole = scoreFromWrongHole;
+    }
+
+    /**
+     * Returns the reference holding the latest parse of a configuration file,
+     * parsing the file the first time it is asked for.
+     *
+     * @param configPath The path to the JSON configuration file.
+     * @return The reference to the current configuration.
+     */
+    public static AtomicReference<GameConfig> current(String configPath) {
+        return CACHE.computeIfAbsent(configPath, path -> new AtomicReference<>(load(path)));
+    }
+
+    /**
+     * Reads and parses a configuration file.
+     *
+     * @param configPath The path to the JSON configuration file.
+     * @return The parsed configuration.
+     */
+    public static GameConfig load(String configPath) {
+        try (Reader reader = new BufferedReader(new FileReader(configPath))) {
+            return parse(new JSONObject(reader));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read config file " + configPath, e);
+        }
+    }
+
+    /**
+     * Parses a configuration.
+     *
+     * @param config The configuration as JSON.
+     * @return The parsed configuration.
+     */
+    public static GameConfig parse(JSONObject config) {
+        JSONArray level_array = config.getJSONArray("levels");
+        ArrayList<LevelConfig> levels = new ArrayList<>();
+        for (int i = 0; i < level_array.size(); i++) {
+            levels.add(new LevelConfig(level_array.getJSONObject(i)));
+        }
+        return new GameConfig(levels, parse_scores(config.getJSONObject("score_increase_from_hole_capture")),
+                parse_scores(config.getJSONObject("score_decrease_from_wrong_hole")));
+    }
+
+    private static float[] parse_scores(JSONObject scores) {
+        float[] parsed = new float[BallColour.COUNT];
+        for (Object keyObj : scores.keys()) {
+            String key = keyObj.toString();
+            parsed[BallColour.of_name(key).ordinal()] = scores.getInt(key);
+        }
+        return parsed;
+    }
+
+    /**
+     * The getter methods for the configuration.
+     */
+    public int get_level_count() {
+        return levels.size();
+    }
+
+    public LevelConfig get_level(int level_number) {
+        return levels.get(level_number);
+    }
+
+    public float getScoreHoleCapture(BallColour colour) {
+        return scoreFromHoleCapture[colour.ordinal()];
+    }
+
+    public float getScoreWrongHole(BallColour colour) {
+        return scoreFromWrongHole[colour.ordinal()];
+    }
+
+    public float getScoreHoleCapture(char ballType) {
+        return getScoreHoleCapture(BallColour.of_type(ballType));
+    }
+
+    public float getScoreWrongHole(char ballType) {
+        return getScoreWrongHole(BallColour.of_type(ballType));
+    }
+
+    /**
+     * The settings of one level.
+     */
+    public static class LevelConfig {
+
+        private final String layout;
+        private final int time;
+        private final float spawn_interval;
+        private final float scoreIncreaseFromHoleCaptureModifier;
+        private final float scoreDecreaseFromWrongHoleModifier;
+        // the ball types of the candidate balls, in order.
+        private final String balls;
+
+        /**
+         * Constructs a new LevelConfig object.
+         *
+         * @param level The level's entry in the configuration.
+         */
+        LevelConfig(JSONObject level) {
+            this.layout = level.getString("layout");
+            this.time = level.getInt("time");
+            this.spawn_interval = level.getFloat("spawn_interval");
+            this.scoreIncreaseFromHoleCaptureModifier = level.getFloat("score_increase_from_hole_capture_modifier");
+            this.scoreDecreaseFromWrongHoleModifier = level.getFloat("score_decrease_from_wrong_hole_modifier");
+
+            JSONArray colours = level.getJSONArray("balls");
+            StringBuilder types = new StringBuilder();
+            for (int i = 0; i < colours.size(); i++) {
+                types.append(BallColour.of_name(colours.getString(i)).get_type());
+            }
+            this.balls = types.toString();
+        }
+
+        /**
+         * The getter methods for the level settings.
+         */
+        public String get_layout() {
+            return this.layout;
+        }
+
+        public int get_time() {
+            return this.time;
+        }
+
+        public float get_spawn_interval() {
+            return this.spawn_interval;
+        }
+
+        public float get_scoreIncreaseFromHoleCaptureModifier() {
+            return this.scoreIncreaseFromHoleCaptureModifier;
+        }
+
+        public float get_scoreDecreaseFromWrongHoleModifier() {
+            return this.scoreDecreaseFromWrongHoleModifier;
+        }
+
+        public String get_balls() {
+            return this.balls;
+        }
+    }
+}
@@ -0,0 +1,736 @@
+package inkball;
+
+import processing.data.JSONArray;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the complete state of an Inkball game and advances it without any
+ * rendering. App owns one GameWorld and only draws what it contains, so a level
+ * can also be simulated headlessly by calling tick() in a loop.
+ */
+public class GameWorld {
+
+    /**
+     * Number of simulation ticks per second. Ball speeds are in pixels per tick,
+     * so this rate alone decides how fast the game plays.
+     */
+    public static final int TICK_RATE = 30;
+
+    /**
+     * Length of one simulation tick in seconds.
+     */
+    public static final float TICK = 1.0f / TICK_RATE;
+
+    /**
+     * Seconds between two steps of the win animation.
+     */
+    public static final float CHANGE_TILE_INTERVAL = 0.067f;
+
+    /**
+     * Number of balls from which they are moved in parallel. Below it the cost
+     * of handing the work to other threads outweighs the gain.
+     */
+    public static final int PARALLEL_THRESHOLD = 512;
+
+    private String configPath;
+
+    private int level_number = 0;
+    // the configuration in use, and where newer ones are published.
+    private GameConfig config;
+    private AtomicReference<GameConfig> config_ref;
+    // a level list set with set_game_levels(), counted instead of the config's.
+    private JSONArray levels;
+    private String level_file;
+
+    private Tile[][] board;
+    private BallStore balls;
+    private ArrayList<Ball> candidates_balls;
+    private ArrayList<Hole> holes;
+    private ArrayList<Spawner> spawners;
+    private LineList Linelist;
+    private WallField wall_field;
+    private HoleIndex hole_index;
+    // the breakable walls by grid cell, the ones that broke during this tick
+    // and the ones broken since the renderer last took them.
+    private Broken_Wall[][] breakable_walls;
+    private ArrayList<Broken_Wall> breaking;
+    private ArrayList<Broken_Wall> broken_walls;
+
+    // the candidate balls, player-drawn lines and tiles are reused across
+    // spawns, strokes, restarts and levels.
+    private final ObjectPool<Ball> ball_pool = new ObjectPool<>(() -> new Ball((BallStore) null));
+    private final ObjectPool<Line> line_pool = new ObjectPool<>(Line::new);
+    private final ObjectPool<Tile> tile_pool = new ObjectPool<>(() -> new Tile(0, 0, ' '));
+
+    private float scoreIncreaseFromHoleCaptureModifier;
+    private float scoreDecreaseFromWrongHoleModifier;
+
+    // the only source of randomness in the game, so a seed and the player's
+    // input decide a whole game.
+    private final long seed;
+    private final Random random;
+
+    private float score = 0;
+    private int time;
+    private float spawn_interval;
+    private float spawn_timer;
+
+    // seconds accumulated towards the next decrement of time.
+    private float time_count;
+    // seconds accumulated towards the next step of the win animation.
+    private float change_tile_count;
+
+    private long tick_count;
+
+    private int circular_tile[][];
+    private int circular_tile_size;
+
+    private boolean is_paused;
+    private boolean is_lost;
+    private boolean is_won;
+    private boolean is_game_ended;
+
+    private int parallel_threshold = PARALLEL_THRESHOLD;
+    private BallUpdater ball_updater;
+    private BallCollider ball_collider = new BallCollider();
+
+    /**
+     * Constructs a new GameWorld object with a seed of its own.
+     *
+     * @param configPath The path to the JSON configuration file.
+     */
+    public GameWorld(String configPath) {
+        this(configPath, new Random().nextLong());
+    }
+
+    /**
+     * Constructs a new GameWorld object.
+     *
+     * @param configPath The path to the JSON configuration file.
+     * @param seed       The seed of every random choice the game makes.
+     */
+    public GameWorld(String configPath, long seed) {
+        this.configPath = configPath;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.board = new Tile[App.Tile_SIZE][App.Tile_SIZE];
+        this.balls = new BallStore();
+        this.candidates_balls = new ArrayList<>();
+        this.holes = new ArrayList<>();
+        this.spawners = new ArrayList<>();
+        this.Linelist = new LineList(line_pool);
+        this.wall_field = new WallField();
+        this.hole_index = new HoleIndex();
+        this.breakable_walls = new Broken_Wall[App.Tile_SIZE][App.Tile_SIZE];
+        this.breaking = new ArrayList<>();
+        this.broken_walls = new ArrayList<>();
+        buildCircularTile();
+    }
+
+    /**
+     * Loads the current level from the configuration and layout files, resetting
+     * all per-level state. The score is kept so it carries over between levels.
+     * The tiles, candidate balls, lines and ball handles of the previous level
+     * go back to their pools, and the ball store and line grid are emptied, to
+     * be reused by this one.
+     */
+    public void load_level() {
+        is_won = false;
+        is_lost = false;
+        is_game_ended = false;
+        is_paused = false;
+
+        for (Tile[] row : board) {
+            for (int col = 0; col < row.length; col++) {
+                if (row[col] != null) {
+                    tile_pool.release(row[col]);
+                    row[col] = null;
+                }
+            }
+        }
+        for (int i = 0; i < candidates_balls.size(); i++) {
+            ball_pool.release(candidates_balls.get(i));
+        }
+        candidates_balls.clear();
+        Linelist.clear();
+        balls.clear(ball_pool);
+
+        holes = new ArrayList<>();
+        spawners = new ArrayList<>();
+        breakable_walls = new Broken_Wall[App.Tile_SIZE][App.Tile_SIZE];
+        breaking.clear();
+        broken_walls.clear();
+
+        time_count = 0;
+        change_tile_count = 0;
+
+        processJsonFile();
+        readLevel(level_file);
+    }
+
+    /**
+     * Takes the settings of the current level from the configuration, which is
+     * only parsed the first time any world uses the file.
+     */
+    public void processJsonFile() {
+        if (config_ref == null) {
+            config_ref = GameConfig.current(configPath);
+        }
+        config = config_ref.get();
+        GameConfig.LevelConfig level_n = config.get_level(level_number);
+        level_file = level_n.get_layout();
+
+        time = level_n.get_time();
+
+        spawn_interval = level_n.get_spawn_interval();
+        spawn_timer = spawn_interval;
+
+        scoreIncreaseFromHoleCaptureModifier = level_n.get_scoreIncreaseFromHoleCaptureModifier();
+        scoreDecreaseFromWrongHoleModifier = level_n.get_scoreDecreaseFromWrongHoleModifier();
+
+        String candidate_types = level_n.get_balls();
+        int x_of_ball = 40;
+        for (int i = 0; i < candidate_types.length(); i++) {
+            Ball b = ball_pool.acquire();
+            b.reset(0, 0, candidate_types.charAt(i), this);
+            b.set_x(x_of_ball);
+            b.set_y(20);
+            candidates_balls.add(b);
+            x_of_ball += App.CELLSIZE;
+        }
+    }
+
+    /**
+     * Switches to a configuration that was reloaded during the level. The new
+     * scores apply from now on to the balls on the board and those waiting to
+     * spawn, as do the new modifiers, and the new spawn interval from the next
+     * spawn; the time, layout and balls of the level change on its next load.
+     *
+     * @param latest The reloaded configuration.
+     */
+    private void retune(GameConfig latest) {
+        config = latest;
+        balls.rescore(this);
+        for (int i = 0; i < candidates_balls.size(); i++) {
+            Ball b = candidates_balls.get(i);
+            b.set_ball_score(this, b.get_type());
+        }
+        if (level_number >= latest.get_level_count()) {
+            return;
+        }
+        GameConfig.LevelConfig level_n = latest.get_level(level_number);
+        spawn_timer = level_n.get_spawn_interval();
+        scoreIncreaseFromHoleCaptureModifier = level_n.get_scoreIncreaseFromHoleCaptureModifier();
+        scoreDecreaseFromWrongHoleModifier = level_n.get_scoreDecreaseFromWrongHoleModifier();
+    }
+
+    /**
+     * Reads the level layout and initializes the game board. The layout is only
+     * read from disk the first time; after that it comes from the cache of
+     * compiled levels.
+     *
+     * @param level_file The path to the level file.
+     */
+    public void readLevel(String level_file) {
+        try {
+            CompiledLevel level = CompiledLevel.load(level_file);
+            level.fill_board(board, tile_pool);
+
+            int[] level_balls = level.get_balls();
+            for (int i = 0; i < level_balls.length; i += 3) {
+                balls.spawn(level_balls[i], level_balls[i + 1], (char) level_balls[i + 2], this);
+            }
+            int[] level_holes = level.get_holes();
+            for (int i = 0; i < level_holes.length; i += 3) {
+                holes.add(new Hole(level_holes[i], level_holes[i + 1], (char) level_holes[i + 2]));
+            }
+            int[] level_spawners = level.get_spawners();
+            for (int i = 0; i < level_spawners.length; i += 3) {
+                spawners.add(new Spawner(level_spawners[i], level_spawners[i + 1], (char) level_spawners[i + 2],
+                        this));
+            }
+            wall_field.copy_from(level.get_wall_field(), board);
+        } catch (IOException e) {
+            e.printStackTrace();
+            wall_field.build(board);
+        }
+        hole_index.build(holes);
+
+        for (int row = 0; row < App.Tile_SIZE; row++) {
+            for (int col = 0; col < App.Tile_SIZE; col++) {
+                Tile tile = board[row][col];
+                if (tile != null && tile.is_breakable) {
+                    breakable_walls[row][col] = new Broken_Wall(col, row, tile.get_type());
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the path followed by the win animation around the board edge.
+     */
+    private void buildCircularTile() {
+        // We need to store x, y coordinates, that's why we need [2] here.
+        circular_tile = new int[68][2];
+        for (int i = 0; i < 18; i++) {
+            circular_tile[i][0] = 0;
+            circular_tile[i][1] = i;
+        }
+
+        // the most right edge.
+
+        int i1 = 1;
+        for (int i = 18; i < 35; i++) {
+            circular_tile[i][0] = i1;
+            circular_tile[i][1] = 17;
+            i1++;
+        }
+
+        // the most bottom edge.
+
+        int i2 = 16;
+        for (int i = 35; i < 52; i++) {
+            circular_tile[i][0] = 17;
+            circular_tile[i][1] = i2;
+            i2--;
+        }
+
+        // the most left edge.
+
+        int i3 = 16;
+        for (int i = 52; i < 68; i++) {
+            circular_tile[i][0] = i3;
+            circular_tile[i][1] = 0;
+            i3--;
+        }
+    }
+
+    /**
+     * Advances the game by one fixed tick of TICK seconds.
+     */
+    public void tick() {
+        step(TICK);
+        tick_count++;
+    }
+
+    /**
+     * Advances the game by one tick. Timers advance by dt seconds and every ball
+     * moves once, so dt should normally be TICK.
+     *
+     * @param dt The length of the tick in seconds.
+     */
+    public void step(float dt) {
+        if (is_game_ended || is_lost || is_paused) {
+            return;
+        }
+        if (config_ref != null && config_ref.get() != config) {
+            retune(config_ref.get());
+        }
+        if (is_won) {
+            update_circular_tile(dt);
+            return;
+        }
+        update_time(dt);
+        update_spawn_interval(dt);
+        update_candidates_balls();
+        update_balls();
+        time_check();
+    }
+
+    /**
+     * Counts the level time down once per elapsed second.
+     *
+     * @param dt The elapsed time in seconds.
+     */
+    private void update_time(float dt) {
+        time_count += dt;
+        while (time_count >= 1.0f) {
+            time--;
+            time_count -= 1.0f;
+        }
+    }
+
+    /**
+     * Counts the spawn interval down and spawns the next candidate ball from a
+     * random spawner when it expires.
+     *
+     * @param dt The elapsed time in seconds.
+     */
+    private void update_spawn_interval(float dt) {
+        if (candidates_balls.size() == 0) {
+            return;
+        }
+        spawn_interval -= dt;
+        if (spawn_interval <= 0.0f) {
+            spawn_interval = spawn_timer;
+            int spawn_index = random.nextInt(spawners.size());
+            Spawner s = spawners.get(spawn_index);
+            s.spawnBalls(balls, candidates_balls);
+        }
+    }
+
+    /**
+     * Slides the candidate balls in the top bar towards their slots.
+     */
+    private void update_candidates_balls() {
+        for (int i = 0; i < candidates_balls.size(); i++) {
+            Ball b = candidates_balls.get(i);
+            int targetX = (i * 32) + 10;
+
+            if (b.x > targetX) {
+                b.set_speed_x(-1);
+            } else {
+                b.set_speed_x(0);
+            }
+
+            b.x += b.speedX;
+        }
+    }
+
+    /**
+     * Moves every ball and removes the ones that were captured by a hole. A
+     * removed ball is replaced by the last one, which is moved next. With many
+     * balls the work is handed to a BallUpdater, which gives the same result
+     * using every core. The breakable walls that took their last hit then
+     * break, and the balls that end up touching bounce off each other.
+     */
+    private void update_balls() {
+        if (balls.size() >= parallel_threshold) {
+            if (ball_updater == null) {
+                ball_updater = new BallUpdater(ForkJoinPool.commonPool());
+            }
+            ball_updater.update(this);
+        } else {
+            int i = 0;
+            while (i < balls.size()) {
+                Ball b = balls.view(i);
+                b.move(this);
+                if (b.in_hole_flag) {
+                    balls.remove(i);
+                } else {
+                    i++;
+                }
+            }
+        }
+        break_walls();
+        ball_collider.collide(balls);
+    }
+
+    /**
+     * Records a ball bouncing off a breakable wall. A wall that has taken
+     * enough hits breaks at the end of the tick.
+     *
+     * @param tile The tile of the breakable wall.
+     */
+    public void hit_breakable(Tile tile) {
+        Broken_Wall wall = breakable_walls[tile.getGridY()][tile.getGridX()];
+        if (wall == null || wall.isDestroyed()) {
+            return;
+        }
+        wall.hit();
+        if (wall.isDestroyed()) {
+            breaking.add(wall);
+        }
+    }
+
+    /**
+     * Takes the walls that broke during the tick off the board. Each becomes an
+     * empty tile and only the samples of the wall field that were nearest to it
+     * are updated.
+     */
+    private void break_walls() {
+        for (int i = 0; i < breaking.size(); i++) {
+            Broken_Wall wall = breaking.get(i);
+            int row = wall.getGridY();
+            int col = wall.getGridX();
+            Tile tile = board[row][col];
+            Tile empty = tile_pool.acquire();
+            empty.reset(col, row, ' ');
+            board[row][col] = empty;
+            breakable_walls[row][col] = null;
+            wall_field.remove_wall(tile);
+            tile_pool.release(tile);
+            broken_walls.add(wall);
+        }
+        breaking.clear();
+    }
+
+    /**
+     * Advances the win animation, converting the remaining time into score.
+     *
+     * @param dt The elapsed time in seconds.
+     */
+    public void update_circular_tile(float dt) {
+        change_tile_count += dt;
+        while (change_tile_count >= CHANGE_TILE_INTERVAL && time > 0) {
+            circular_tile_size++;
+            time--;
+            score++;
+            change_tile_count -= CHANGE_TILE_INTERVAL;
+        }
+    }
+
+    /**
+     * Checks the game state based on time and ball count.
+     * This method determines if the player has won or lost the game.
+     */
+    public void time_check() {
+        if (balls.size() == 0 && candidates_balls.size() == 0) {
+            is_won = true;
+            is_lost = false;
+        } else if (time <= 0) {
+            is_lost = true;
+            is_won = false;
+        }
+    }
+
+    /**
+     * Moves on to the next level after a win, or ends the game if the last level
+     * was won. The next level still has to be loaded with load_level().
+     *
+     * @return true if there is a next level to load, false if the game ended.
+     */
+    public boolean advance_level() {
+        is_won = false;
+        if (level_number < get_level_count() - 1) {
+            level_number++;
+            return true;
+        }
+        is_game_ended = true;
+        is_lost = false;
+        return false;
+    }
+
+    /**
+     * Adds a finished player-drawn line to the board.
+     *
+     * @param line The line to add.
+     */
+    public void add_line(Line line) {
+        Linelist.add(line);
+    }
+
+    /**
+     * Returns an empty line to draw, reusing one that was removed if there is
+     * one.
+     *
+     * @return The line.
+     */
+    public Line new_line() {
+        Line line = line_pool.acquire();
+        line.reset();
+        return line;
+    }
+
+    /**
+     * Removes every line that intersects with the given line.
+     *
+     * @param eraser The line used as an eraser.
+     */
+    public void remove_intersecting_lines(Line eraser) {
+        for (int i = Linelist.size() - 1; i >= 0; i--) {
+            if (Linelist.get(i).intersects(eraser)) {
+                Linelist.remove(i);
+            }
+        }
+    }
+
+    /**
+     * The getter and setter methods for the game state.
+     */
+    public int get_time() {
+        return this.time;
+    }
+
+    public void set_time(int time) {
+        this.time = time;
+    }
+
+    public Tile[][] get_tiles() {
+        return this.board;
+    }
+
+    public BallStore get_balls() {
+        return this.balls;
+    }
+
+    public ArrayList<Ball> get_candidates_balls() {
+        return this.candidates_balls;
+    }
+
+    public ArrayList<Hole> get_holes() {
+        return this.holes;
+    }
+
+    public ArrayList<Spawner> get_spawner() {
+        return this.spawners;
+    }
+
+    public LineList get_lines() {
+        return this.Linelist;
+    }
+
+    public WallField get_wall_field() {
+        return this.wall_field;
+    }
+
+    public HoleIndex get_hole_index() {
+        return this.hole_index;
+    }
+
+    public Broken_Wall get_breakable_wall(int row, int col) {
+        return this.breakable_walls[row][col];
+    }
+
+    /**
+     * Returns the walls broken since the list was last cleared, which the
+     * renderer clears once it has redrawn their cells.
+     */
+    public ArrayList<Broken_Wall> get_broken_walls() {
+        return this.broken_walls;
+    }
+
+    public float get_score() {
+        return this.score;
+    }
+
+    public void set_score(float score) {
+        this.score += score;
+    }
+
+    public void reset_score() {
+        this.score = 0;
+    }
+
+    public float getScoreHoleCapture(char ballType) {
+        return config.getScoreHoleCapture(BallColour.of_type(ballType));
+    }
+
+    public float getScoreWrongHole(char ballType) {
+        return config.getScoreWrongHole(BallColour.of_type(ballType));
+    }
+
+    public float get_scoreIncreaseFromHoleCaptureModifier() {
+        return this.scoreIncreaseFromHoleCaptureModifier;
+    }
+
+    public float get_scoreDecreaseFromWrongHoleModifier() {
+        return this.scoreDecreaseFromWrongHoleModifier;
+    }
+
+    public float get_spawn_interval() {
+        return this.spawn_interval;
+    }
+
+    public float get_spawn_timer() {
+        return this.spawn_timer;
+    }
+
+    public float get_time_count() {
+        return this.time_count;
+    }
+
+    public ObjectPool<Ball> get_ball_pool() {
+        return this.ball_pool;
+    }
+
+    public ObjectPool<Line> get_line_pool() {
+        return this.line_pool;
+    }
+
+    public ObjectPool<Tile> get_tile_pool() {
+        return this.tile_pool;
+    }
+
+    public BallCollider get_ball_collider() {
+        return this.ball_collider;
+    }
+
+    public int get_parallel_threshold() {
+        return this.parallel_threshold;
+    }
+
+    public void set_parallel_threshold(int parallel_threshold) {
+        this.parallel_threshold = parallel_threshold;
+    }
+
+    public long get_tick_count() {
+        return this.tick_count;
+    }
+
+    public Random get_random() {
+        return this.random;
+    }
+
+    public long get_seed() {
+        return this.seed;
+    }
+
+    public String get_config_path() {
+        return this.configPath;
+    }
+
+    public int[][] get_circular_tile() {
+        return this.circular_tile;
+    }
+
+    public int get_circular_tile_size() {
+        return this.circular_tile_size;
+    }
+
+    public int get_level_number() {
+        return this.level_number;
+    }
+
+    public void set_level_number(int level_number) {
+        this.level_number = level_number;
+    }
+
+    public GameConfig get_config() {
+        return this.config;
+    }
+
+    public int get_level_count() {
+        return levels != null ? levels.size() : config.get_level_count();
+    }
+
+    public JSONArray get_game_levels() {
+        return this.levels;
+    }
+
+    public void set_game_levels(JSONArray levels) {
+        this.levels = levels;
+    }
+
+    public boolean get_is_paused() {
+        return this.is_paused;
+    }
+
+    public void set_is_paused(boolean is_paused) {
+        this.is_paused = is_paused;
+    }
+
+    public boolean get_is_lost() {
+        return this.is_lost;
+    }
+
+    public void set_is_lost(boolean is_lost) {
+        this.is_lost = is_lost;
+    }
+
+    public boolean get_is_won() {
+        return this.is_won;
+    }
+
+    public void set_is_won(boolean is_won) {
+        this.is_won = is_won;
+    }
+
+    public boolean get_is_game_ended() {
+        return this.is_game_ended;
+    }
+}
@@ -0,0 +1,102 @@
+package inkball;
+
+import java.util.*;
+
+/**
+ * A uniform grid of CELLSIZE cells that buckets every hole by the area its
+ * attraction reaches. A ball only has to check the holes bucketed in the cell
+ * its centre is in, however many holes the level has.
+ */
+public class HoleIndex {
+
+    /**
+     * Distance from the centre of a hole within which it pulls balls in.
+     */
+    public static final float ATTRACTION_RADIUS = 32;
+
+    private final int cols;
+    private final int rows;
+
+    private Hole[][] cell_holes;
+    private int[] cell_sizes;
+
+    /**
+     * Constructs a new, empty HoleIndex object covering the whole window.
+     */
+    public HoleIndex() {
+        this.cols = (App.WIDTH + App.CELLSIZE - 1) / App.CELLSIZE;
+        this.rows = (App.HEIGHT + App.CELLSIZE - 1) / App.CELLSIZE;
+        this.cell_holes = new Hole[cols * rows][];
+        this.cell_sizes = new int[cols * rows];
+    }
+
+    /**
+     * Rebuckets the given holes, replacing any holes indexed before. Within a
+     * cell the holes keep the order of the list.
+     *
+     * @param holes The holes of the level.
+     */
+    public void build(ArrayList<Hole> holes) {
+        Arrays.fill(cell_sizes, 0);
+        for (int i = 0; i < holes.size(); i++) {
+            Hole hole = holes.get(i);
+            float center_x = hole.x + 32;
+            float center_y = hole.y + 32;
+            int col1 = clamp_col(to_cell(center_x - ATTRACTION_RADIUS));
+            int col2 = clamp_col(to_cell(center_x + ATTRACTION_RADIUS));
+            int row1 = clamp_row(to_cell(center_y - ATTRACTION_RADIUS));
+            int row2 = clamp_row(to_cell(center_y + ATTRACTION_RADIUS));
+            for (int row = row1; row <= row2; row++) {
+                for (int col = col1; col <= col2; col++) {
+                    append(row * cols + col, hole);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the grid cell containing a point. Points outside the window are
+     * clamped to the nearest edge cell.
+     *
+     * @param x The x-coordinate in pixels.
+     * @param y The y-coordinate in pixels.
+     * @return The index of the cell.
+     */
+    public int cell_of(float x, float y) {
+        return clamp_row(to_cell(y)) * cols + clamp_col(to_cell(x));
+    }
+
+    /**
+     * The getter methods for the holes bucketed in a cell.
+     */
+    public int get_cell_size(int cell) {
+        return cell_sizes[cell];
+    }
+
+    public Hole get_cell_hole(int cell, int k) {
+        return cell_holes[cell][k];
+    }
+
+    private int clamp_col(int col) {
+        return Math.max(0, Math.min(cols - 1, col));
+    }
+
+    private int clamp_row(int row) {
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    private static int to_cell(float pixel) {
+        return (int) Math.floor(pixel / App.CELLSIZE);
+    }
+
+    private void append(int cell, Hole hole) {
+        int size = cell_sizes[cell];
+        if (cell_holes[cell] == null) {
+            cell_holes[cell] = new Hole[2];
+        } else if (size == cell_holes[cell].length) {
+            cell_holes[cell] = Arrays.copyOf(cell_holes[cell], size * 2);
+        }
+        cell_holes[cell][size] = hole;
+        cell_sizes[cell] = size + 1;
+    }
+}
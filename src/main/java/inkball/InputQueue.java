@@ -0,0 +1,122 @@
+package inkball;
+
+/**
+ * A lock-free queue of mouse input from the thread that receives the events
+ * to the thread that runs the game. Exactly one thread may offer events and
+ * exactly one may drain them.
+ * Events are packed as EVENT_SIZE ints each into a ring buffer whose capacity
+ * is a power of two. The producer writes an event and then publishes it by
+ * advancing the volatile tail; the consumer reads up to the tail it saw and
+ * then frees the events by advancing the volatile head. Neither side ever
+ * waits for the other: an event offered while the queue is full is dropped
+ * and counted instead of stalling the producer.
+ */
+public class InputQueue {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    // type, px, py, x, y, flag.
+    private static final int EVENT_SIZE = 6;
+
+    private final int[] events;
+    private final int mask;
+
+    // the next event to drain and the next slot to fill. Both only grow.
+    private volatile long head;
+    private volatile long tail;
+
+    private volatile long dropped;
+
+    /**
+     * Constructs a new InputQueue object with the default capacity.
+     */
+    public InputQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new InputQueue object.
+     *
+     * @param capacity The number of events the queue holds, a power of two.
+     */
+    public InputQueue(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.events = new int[capacity * EVENT_SIZE];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds an event to the queue. Only called by the producer thread.
+     *
+     * @param type The type of the event, ReplayRecorder.PRESS, DRAG or RELEASE.
+     * @param px   The previous x-coordinate of the mouse.
+     * @param py   The previous y-coordinate of the mouse.
+     * @param x    The x-coordinate of the mouse.
+     * @param y    The y-coordinate of the mouse.
+     * @param flag Whether a drag erases or a release keeps the line.
+     * @return false if the queue was full and the event was dropped.
+     */
+    public boolean offer(int type, int px, int py, int x, int y, boolean flag) {
+        long t = tail;
+        if (t - head > mask) {
+            dropped++;
+            return false;
+        }
+        int o = (int) (t & mask) * EVENT_SIZE;
+        events[o] = type;
+        events[o + 1] = px;
+        events[o + 2] = py;
+        events[o + 3] = x;
+        events[o + 4] = y;
+        events[o + 5] = flag ? 1 : 0;
+        tail = t + 1;
+        return true;
+    }
+
+    /**
+     * Applies every event published so far to the player input, in the order
+     * they were offered. Only called by the consumer thread.
+     *
+     * @param input The player input to apply the events to.
+     * @return The number of events applied.
+     */
+    public int drain(PlayerInput input) {
+        long h = head;
+        long t = tail;
+        for (long i = h; i < t; i++) {
+            int o = (int) (i & mask) * EVENT_SIZE;
+            switch (events[o]) {
+                case ReplayRecorder.PRESS:
+                    input.press(events[o + 1], events[o + 2], events[o + 3], events[o + 4]);
+                    break;
+                case ReplayRecorder.DRAG:
+                    input.drag(events[o + 1], events[o + 2], events[o + 3], events[o + 4], events[o + 5] != 0);
+                    break;
+                case ReplayRecorder.RELEASE:
+                    input.release(events[o + 5] != 0);
+                    break;
+                default:
+                    break;
+            }
+        }
+        head = t;
+        return (int) (t - h);
+    }
+
+    /**
+     * The getter methods for the state of the queue.
+     */
+    public int get_size() {
+        return (int) (tail - head);
+    }
+
+    public int get_capacity() {
+        return this.mask + 1;
+    }
+
+    public long get_dropped() {
+        return this.dropped;
+    }
+}
@@ -1,62 +1,339 @@
-package inkball;
-
-import java.util.*;
-
-/**
- * Represents a line drawn by the player.
- */
-public class Line {
-    public ArrayList<int[]> points;
-
-    /**
-     * Constructs a new Line object.
-     *
-     * @param points An ArrayList of int arrays, each representing a point on the
-     *               line.
-     */
-    public Line(ArrayList<int[]> points) {
-        this.points = points;
-    }
-
-    /**
-     * Checks if this line intersects with another line.
-     *
-     * @param other The other line to check for intersection.
-     * @return true if the lines intersect, false otherwise.
-     */
-    public boolean intersects(Line other) {
-        for (int[] segment1 : this.points) {
-            for (int[] segment2 : other.points) {
-                if (linesIntersect(segment1[0], segment1[1], segment1[2], segment1[3],
-                        segment2[0], segment2[1], segment2[2], segment2[3])) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Checks if two line segments intersect.
-     *
-     * @param x1 The x-coordinate of the first point of the first line segment.
-     * @param y1 The y-coordinate of the first point of the first line segment.
-     * @param x2 The x-coordinate of the second point of the first line segment.
-     * @param y2 The y-coordinate of the second point of the first line segment.
-     * @param x3 The x-coordinate of the first point of the second line segment.
-     * @param y3 The y-coordinate of the first point of the second line segment.
-     * @param x4 The x-coordinate of the second point of the second line segment.
-     * @param y4 The y-coordinate of the second point of the second line segment.
-     * @return true if the line segments intersect, false otherwise.
-     */
-    private boolean linesIntersect(float x1, float y1, float x2, float y2,
-            float x3, float y3, float x4, float y4) {
-        float denom = ((y4 - y3) * (x2 - x1) - (x4 - x3) * (y2 - y1));
-        if (denom == 0) {
-            return false;
-        }
-        float ua = ((x4 - x3) * (y1 - y3) - (y4 - y3) * (x1 - x3)) / denom;
-        float ub = ((x2 - x1) * (y1 - y3) - (y2 - y1) * (x1 - x3)) / denom;
-        return ua >= 0 && ua <= 1 && ub >= 0 && ub <= 1;
-    }
-}
+package inkball;
+
+import java.util.*;
+
+/**
+ * Represents a line drawn by the player.
+ * The segments are packed into one growable int array as x1, y1, x2, y2 per
+ * segment, and the bounding box of all segments is kept up to date as segments
+ * are added.
+ */
+public class Line {
+
+    private static final int INITIAL_SEGMENTS = 16;
+
+    // Below this many segment pairs a plain double loop beats sorting.
+    private static final int SWEEP_THRESHOLD = 64;
+
+    private int[] segments;
+    private int segment_count;
+
+    private int min_x = Integer.MAX_VALUE;
+    private int min_y = Integer.MAX_VALUE;
+    private int max_x = Integer.MIN_VALUE;
+    private int max_y = Integer.MIN_VALUE;
+
+    // segment indices sorted by their smallest x, packed as (min x << 32 | index).
+    // Rebuilt lazily whenever segments were added since the last sort.
+    private long[] sorted_segments;
+    private int sorted_count = -1;
+
+    // the active segments of both lines in sweep_intersects(), kept between
+    // calls so a sweep does not allocate. Grown on demand.
+    private int[] active_a = new int[0];
+    private int[] active_b = new int[0];
+
+    // position in drawing order, assigned when the line is added to a LineList.
+    int order;
+
+    /**
+     * Constructs a new Line object without any segments.
+     */
+    public Line() {
+        this.segments = new int[INITIAL_SEGMENTS * 4];
+    }
+
+    /**
+     * Constructs a new Line object.
+     *
+     * @param points An ArrayList of int arrays, each representing a point on the
+     *               line.
+     */
+    public Line(ArrayList<int[]> points) {
+        this.segments = new int[Math.max(INITIAL_SEGMENTS, points.size()) * 4];
+        for (int[] point : points) {
+            add_segment(point[0], point[1], point[2], point[3]);
+        }
+    }
+
+    /**
+     * Empties a pooled line so it can be drawn again. The segment array keeps
+     * its capacity.
+     */
+    public void reset() {
+        segment_count = 0;
+        min_x = Integer.MAX_VALUE;
+        min_y = Integer.MAX_VALUE;
+        max_x = Integer.MIN_VALUE;
+        max_y = Integer.MIN_VALUE;
+        sorted_count = -1;
+        order = 0;
+    }
+
+    /**
+     * Appends a segment to the line.
+     *
+     * @param x1 The x-coordinate of the start point.
+     * @param y1 The y-coordinate of the start point.
+     * @param x2 The x-coordinate of the end point.
+     * @param y2 The y-coordinate of the end point.
+     */
+    public void add_segment(int x1, int y1, int x2, int y2) {
+        int offset = segment_count * 4;
+        if (offset == segments.length) {
+            segments = Arrays.copyOf(segments, segments.length * 2);
+        }
+        segments[offset] = x1;
+        segments[offset + 1] = y1;
+        segments[offset + 2] = x2;
+        segments[offset + 3] = y2;
+        segment_count++;
+
+        min_x = Math.min(min_x, Math.min(x1, x2));
+        min_y = Math.min(min_y, Math.min(y1, y2));
+        max_x = Math.max(max_x, Math.max(x1, x2));
+        max_y = Math.max(max_y, Math.max(y1, y2));
+    }
+
+    /**
+     * Checks if this line intersects with another line.
+     * Lines whose bounding boxes do not overlap are rejected straight away. Only
+     * segments that overlap the other line's bounding box are tested, and long
+     * lines are compared with a sweep over x so that only segments with
+     * overlapping x ranges are paired up.
+     *
+     * @param other The other line to check for intersection.
+     * @return true if the lines intersect, false otherwise.
+     */
+    public boolean intersects(Line other) {
+        if (this.segment_count == 0 || other.segment_count == 0 || !bounds_overlap(other)) {
+            return false;
+        }
+        if (this.segment_count * other.segment_count <= SWEEP_THRESHOLD) {
+            return brute_force_intersects(other);
+        }
+        return sweep_intersects(other);
+    }
+
+    /**
+     * Checks whether the bounding boxes of two lines overlap.
+     *
+     * @param other The other line.
+     * @return true if the bounding boxes overlap or touch.
+     */
+    public boolean bounds_overlap(Line other) {
+        return this.min_x <= other.max_x && other.min_x <= this.max_x
+                && this.min_y <= other.max_y && other.min_y <= this.max_y;
+    }
+
+    /**
+     * Tests every pair of segments, skipping segments outside the other line's
+     * bounding box.
+     *
+     * @param other The other line.
+     * @return true if any pair of segments intersects.
+     */
+    private boolean brute_force_intersects(Line other) {
+        int[] s1 = this.segments;
+        int[] s2 = other.segments;
+        for (int i = 0; i < this.segment_count * 4; i += 4) {
+            if (!other.segment_in_bounds(s1, i)) {
+                continue;
+            }
+            for (int j = 0; j < other.segment_count * 4; j += 4) {
+                if (segments_intersect(s1, i, s2, j)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sweeps a vertical line across both lines' segments in order of their
+     * smallest x. Each segment is only tested against the segments of the other
+     * line that are still active, meaning their x range reaches the sweep line.
+     *
+     * @param other The other line.
+     * @return true if any pair of segments intersects.
+     */
+    private boolean sweep_intersects(Line other) {
+        long[] a = this.sorted_segments();
+        long[] b = other.sorted_segments();
+        int a_count = this.segment_count;
+        int b_count = other.segment_count;
+        if (active_a.length < a_count) {
+            active_a = new int[Math.max(a_count, active_a.length * 2)];
+        }
+        if (active_b.length < b_count) {
+            active_b = new int[Math.max(b_count, active_b.length * 2)];
+        }
+        int[] active_a = this.active_a;
+        int[] active_b = this.active_b;
+        int active_a_count = 0;
+        int active_b_count = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < a_count || j < b_count) {
+            if (j >= b_count || (i < a_count && a[i] >> 32 <= b[j] >> 32)) {
+                int o = 4 * (int) a[i++];
+                if (!other.segment_in_bounds(this.segments, o)) {
+                    continue;
+                }
+                active_b_count = test_active(this.segments, o, (int) (a[i - 1] >> 32), other.segments, active_b,
+                        active_b_count);
+                if (active_b_count < 0) {
+                    return true;
+                }
+                active_a[active_a_count++] = o;
+            } else {
+                int o = 4 * (int) b[j++];
+                if (!this.segment_in_bounds(other.segments, o)) {
+                    continue;
+                }
+                active_a_count = test_active(other.segments, o, (int) (b[j - 1] >> 32), this.segments, active_a,
+                        active_a_count);
+                if (active_a_count < 0) {
+                    return true;
+                }
+                active_b[active_b_count++] = o;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests a segment entering the sweep against the active segments of the
+     * other line, dropping the ones whose x range ends before the sweep line.
+     *
+     * @param s1           The packed segments holding the entering segment.
+     * @param o1           The offset of the entering segment.
+     * @param sweep_x      The smallest x of the entering segment.
+     * @param s2           The packed segments of the other line.
+     * @param active       The offsets of the other line's active segments.
+     * @param active_count The number of active segments.
+     * @return The new number of active segments, or -1 if an intersection was
+     *         found.
+     */
+    private int test_active(int[] s1, int o1, int sweep_x, int[] s2, int[] active, int active_count) {
+        int kept = 0;
+        for (int k = 0; k < active_count; k++) {
+            int o2 = active[k];
+            if (Math.max(s2[o2], s2[o2 + 2]) < sweep_x) {
+                continue;
+            }
+            if (segments_intersect(s1, o1, s2, o2)) {
+                return -1;
+            }
+            active[kept++] = o2;
+        }
+        return kept;
+    }
+
+    /**
+     * Returns the segments sorted by their smallest x, sorting again only if
+     * segments were added since the last call.
+     *
+     * @return The packed (min x, index) keys in ascending order.
+     */
+    private long[] sorted_segments() {
+        if (sorted_count != segment_count) {
+            if (sorted_segments == null || sorted_segments.length < segment_count) {
+                sorted_segments = new long[segments.length / 4];
+            }
+            for (int i = 0; i < segment_count; i++) {
+                long min = Math.min(segments[4 * i], segments[4 * i + 2]);
+                sorted_segments[i] = (min << 32) | i;
+            }
+            Arrays.sort(sorted_segments, 0, segment_count);
+            sorted_count = segment_count;
+        }
+        return sorted_segments;
+    }
+
+    /**
+     * Checks whether a segment overlaps this line's bounding box.
+     *
+     * @param s The packed segments holding the segment.
+     * @param o The offset of the segment.
+     * @return true if the segment's bounding box overlaps or touches this line's.
+     */
+    private boolean segment_in_bounds(int[] s, int o) {
+        return Math.min(s[o], s[o + 2]) <= max_x && Math.max(s[o], s[o + 2]) >= min_x
+                && Math.min(s[o + 1], s[o + 3]) <= max_y && Math.max(s[o + 1], s[o + 3]) >= min_y;
+    }
+
+    /**
+     * Checks if two packed segments intersect, rejecting them first if their
+     * bounding boxes are apart.
+     *
+     * @param s1 The packed segments holding the first segment.
+     * @param o1 The offset of the first segment.
+     * @param s2 The packed segments holding the second segment.
+     * @param o2 The offset of the second segment.
+     * @return true if the segments intersect.
+     */
+    private boolean segments_intersect(int[] s1, int o1, int[] s2, int o2) {
+        if (Math.max(s1[o1], s1[o1 + 2]) < Math.min(s2[o2], s2[o2 + 2])
+                || Math.max(s2[o2], s2[o2 + 2]) < Math.min(s1[o1], s1[o1 + 2])
+                || Math.max(s1[o1 + 1], s1[o1 + 3]) < Math.min(s2[o2 + 1], s2[o2 + 3])
+                || Math.max(s2[o2 + 1], s2[o2 + 3]) < Math.min(s1[o1 + 1], s1[o1 + 3])) {
+            return false;
+        }
+        return linesIntersect(s1[o1], s1[o1 + 1], s1[o1 + 2], s1[o1 + 3],
+                s2[o2], s2[o2 + 1], s2[o2 + 2], s2[o2 + 3]);
+    }
+
+    /**
+     * Checks if two line segments intersect.
+     *
+     * @param x1 The x-coordinate of the first point of the first line segment.
+     * @param y1 The y-coordinate of the first point of the first line segment.
+     * @param x2 The x-coordinate of the second point of the first line segment.
+     * @param y2 The y-coordinate of the second point of the first line segment.
+     * @param x3 The x-coordinate of the first point of the second line segment.
+     * @param y3 The y-coordinate of the first point of the second line segment.
+     * @param x4 The x-coordinate of the second point of the second line segment.
+     * @param y4 The y-coordinate of the second point of the second line segment.
+     * @return true if the line segments intersect, false otherwise.
+     */
+    private boolean linesIntersect(float x1, float y1, float x2, float y2,
+            float x3, float y3, float x4, float y4) {
+        float denom = ((y4 - y3) * (x2 - x1) - (x4 - x3) * (y2 - y1));
+        if (denom == 0) {
+            return false;
+        }
+        float ua = ((x4 - x3) * (y1 - y3) - (y4 - y3) * (x1 - x3)) / denom;
+        float ub = ((x2 - x1) * (y1 - y3) - (y2 - y1) * (x1 - x3)) / denom;
+        return ua >= 0 && ua <= 1 && ub >= 0 && ub <= 1;
+    }
+
+    /**
+     * The getter methods for the packed segments and the bounding box.
+     * Segment i occupies get_segments()[4 * i] to get_segments()[4 * i + 3].
+     */
+    public int[] get_segments() {
+        return this.segments;
+    }
+
+    public int get_segment_count() {
+        return this.segment_count;
+    }
+
+    public int get_min_x() {
+        return this.min_x;
+    }
+
+    public int get_min_y() {
+        return this.min_y;
+    }
+
+    public int get_max_x() {
+        return this.max_x;
+    }
+
+    public int get_max_y() {
+        return this.max_y;
+    }
+}
@@ -0,0 +1,275 @@
+package inkball;
+
+import java.util.*;
+
+/**
+ * The player-drawn lines on the board, together with a uniform grid of
+ * CELLSIZE cells that buckets every line segment by the area in which it can
+ * hit a ball. A ball only has to test the segments bucketed in the cell it is
+ * about to move into instead of every segment of every line.
+ */
+public class LineList implements Iterable<Line> {
+
+    // Half of the largest ball size. A ball collides with a segment when the
+    // sum of its distances to both end points is below the segment length plus
+    // this value, so the collision area is an ellipse around the segment.
+    private static final float BALL_HALF_SIZE = 12;
+
+    private final int cols;
+    private final int rows;
+
+    // where removed lines go to be drawn again, or null to let them go.
+    private final ObjectPool<Line> pool;
+
+    private ArrayList<Line> lines = new ArrayList<>();
+    private int next_order;
+    private int segment_count;
+
+    private Line[][] cell_lines;
+    private int[][] cell_segments;
+    private int[] cell_sizes;
+
+    /**
+     * Constructs a new, empty LineList object covering the whole window.
+     */
+    public LineList() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new, empty LineList object covering the whole window that
+     * releases the lines it removes into a pool.
+     *
+     * @param pool The pool of lines, or null.
+     */
+    public LineList(ObjectPool<Line> pool) {
+        this.pool = pool;
+        this.cols = (App.WIDTH + App.CELLSIZE - 1) / App.CELLSIZE;
+        this.rows = (App.HEIGHT + App.CELLSIZE - 1) / App.CELLSIZE;
+        this.cell_lines = new Line[cols * rows][];
+        this.cell_segments = new int[cols * rows][];
+        this.cell_sizes = new int[cols * rows];
+    }
+
+    /**
+     * Adds a finished line and buckets its segments.
+     *
+     * @param line The line to add.
+     */
+    public void add(Line line) {
+        line.order = next_order++;
+        lines.add(line);
+        segment_count += line.get_segment_count();
+        index(line);
+    }
+
+    /**
+     * Removes a line and its segments from the grid.
+     *
+     * @param line The line to remove.
+     * @return true if the line was in the list.
+     */
+    public boolean remove(Line line) {
+        if (!lines.remove(line)) {
+            return false;
+        }
+        segment_count -= line.get_segment_count();
+        unindex(line);
+        if (pool != null) {
+            pool.release(line);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the line at the given position. A line released into the pool
+     * must not be used any more.
+     *
+     * @param index The position of the line in drawing order.
+     * @return The removed line.
+     */
+    public Line remove(int index) {
+        Line line = lines.remove(index);
+        segment_count -= line.get_segment_count();
+        unindex(line);
+        if (pool != null) {
+            pool.release(line);
+        }
+        return line;
+    }
+
+    /**
+     * Removes every line. The grid buckets keep their arrays for the next
+     * lines.
+     */
+    public void clear() {
+        if (pool != null) {
+            for (int i = 0; i < lines.size(); i++) {
+                pool.release(lines.get(i));
+            }
+        }
+        lines.clear();
+        segment_count = 0;
+        for (int cell = 0; cell < cell_sizes.length; cell++) {
+            if (cell_sizes[cell] > 0) {
+                Arrays.fill(cell_lines[cell], 0, cell_sizes[cell], null);
+                cell_sizes[cell] = 0;
+            }
+        }
+    }
+
+    public boolean contains(Line line) {
+        return lines.contains(line);
+    }
+
+    public int size() {
+        return lines.size();
+    }
+
+    public Line get(int index) {
+        return lines.get(index);
+    }
+
+    /**
+     * Returns the number of segments over all lines.
+     *
+     * @return The total segment count.
+     */
+    public int get_segment_count() {
+        return segment_count;
+    }
+
+    @Override
+    public Iterator<Line> iterator() {
+        return Collections.unmodifiableList(lines).iterator();
+    }
+
+    /**
+     * Returns the grid cell containing a point. Points outside the window are
+     * clamped to the nearest edge cell.
+     *
+     * @param x The x-coordinate in pixels.
+     * @param y The y-coordinate in pixels.
+     * @return The index of the cell.
+     */
+    public int cell_of(float x, float y) {
+        return clamp_row(to_cell(y)) * cols + clamp_col(to_cell(x));
+    }
+
+    /**
+     * The getter methods for the segments bucketed in a cell.
+     */
+    public int get_cell_size(int cell) {
+        return cell_sizes[cell];
+    }
+
+    public Line get_cell_line(int cell, int k) {
+        return cell_lines[cell][k];
+    }
+
+    public int get_cell_segment(int cell, int k) {
+        return cell_segments[cell][k];
+    }
+
+    private int clamp_col(int col) {
+        return Math.max(0, Math.min(cols - 1, col));
+    }
+
+    private int clamp_row(int row) {
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    /**
+     * Buckets every segment of a line into the cells its collision area covers.
+     *
+     * @param line The line to index.
+     */
+    private void index(Line line) {
+        update_cells(line, true);
+    }
+
+    /**
+     * Removes every entry of a line from the cells its segments cover.
+     *
+     * @param line The line to remove from the grid.
+     */
+    private void unindex(Line line) {
+        update_cells(line, false);
+    }
+
+    /**
+     * Visits the cells covered by the collision area of every segment of a line,
+     * adding the segments to them or removing the line from them.
+     *
+     * @param line The line to update.
+     * @param add  true to add the segments, false to remove the line.
+     */
+    private void update_cells(Line line, boolean add) {
+        int[] segments = line.get_segments();
+        for (int s = 0; s < line.get_segment_count(); s++) {
+            int o = s * 4;
+            float margin = collision_margin(segments, o);
+            int col1 = clamp_col(to_cell(Math.min(segments[o], segments[o + 2]) - margin));
+            int col2 = clamp_col(to_cell(Math.max(segments[o], segments[o + 2]) + margin));
+            int row1 = clamp_row(to_cell(Math.min(segments[o + 1], segments[o + 3]) - margin));
+            int row2 = clamp_row(to_cell(Math.max(segments[o + 1], segments[o + 3]) + margin));
+            for (int row = row1; row <= row2; row++) {
+                for (int col = col1; col <= col2; col++) {
+                    if (add) {
+                        append(row * cols + col, line, s);
+                    } else {
+                        remove_from_cell(row * cols + col, line);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int to_cell(float pixel) {
+        return (int) Math.floor(pixel / App.CELLSIZE);
+    }
+
+    /**
+     * Returns how far outside its bounding box a segment can still hit a ball,
+     * which is the semi-minor axis of its collision ellipse.
+     *
+     * @param segments The packed segments of a line.
+     * @param o        The offset of the segment in the packed array.
+     * @return The margin in pixels.
+     */
+    private static float collision_margin(int[] segments, int o) {
+        float dx = segments[o + 2] - segments[o];
+        float dy = segments[o + 3] - segments[o + 1];
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        return (float) Math.sqrt(2 * length * BALL_HALF_SIZE + BALL_HALF_SIZE * BALL_HALF_SIZE) / 2 + 1;
+    }
+
+    private void append(int cell, Line line, int segment) {
+        int size = cell_sizes[cell];
+        if (cell_lines[cell] == null) {
+            cell_lines[cell] = new Line[4];
+            cell_segments[cell] = new int[4];
+        } else if (size == cell_lines[cell].length) {
+            cell_lines[cell] = Arrays.copyOf(cell_lines[cell], size * 2);
+            cell_segments[cell] = Arrays.copyOf(cell_segments[cell], size * 2);
+        }
+        cell_lines[cell][size] = line;
+        cell_segments[cell][size] = segment;
+        cell_sizes[cell] = size + 1;
+    }
+
+    private void remove_from_cell(int cell, Line line) {
+        Line[] entries = cell_lines[cell];
+        int k = 0;
+        while (k < cell_sizes[cell]) {
+            if (entries[k] == line) {
+                int last = --cell_sizes[cell];
+                entries[k] = entries[last];
+                cell_segments[cell][k] = cell_segments[cell][last];
+                entries[last] = null;
+            } else {
+                k++;
+            }
+        }
+    }
+}
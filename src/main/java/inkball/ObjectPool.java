@@ -0,0 +1,93 @@
+package inkball;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * A pool of objects that are reused instead of being allocated again.
+ * acquire() hands out a released object if there is one and only creates a
+ * new one when the pool is empty; the caller resets whatever it gets. The pool
+ * never holds more objects than it has created, so objects made elsewhere and
+ * released into it do not make it grow without bound. It counts how many
+ * objects it created, how many times one was reused and how many are out, so
+ * its occupancy can be shown with the frame metrics.
+ *
+ * @param <T> The type of the pooled objects.
+ */
+public class ObjectPool<T> {
+
+    private final Supplier<T> factory;
+    private final ArrayList<T> free = new ArrayList<>();
+
+    private int created;
+    private long acquired;
+    private long reused;
+    private int peak_in_use;
+
+    /**
+     * Constructs a new, empty ObjectPool object.
+     *
+     * @param factory Creates an object when there is none to reuse.
+     */
+    public ObjectPool(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Takes an object out of the pool, creating one if the pool is empty.
+     *
+     * @return The object, still in the state it was released in.
+     */
+    public T acquire() {
+        acquired++;
+        T object;
+        if (free.isEmpty()) {
+            object = factory.get();
+            created++;
+        } else {
+            object = free.remove(free.size() - 1);
+            reused++;
+        }
+        peak_in_use = Math.max(peak_in_use, get_in_use());
+        return object;
+    }
+
+    /**
+     * Puts an object that is no longer used back into the pool. It must not be
+     * used by the caller afterwards.
+     *
+     * @param object The object to release.
+     */
+    public void release(T object) {
+        if (free.size() < created) {
+            free.add(object);
+        }
+    }
+
+    /**
+     * The getter methods for the occupancy of the pool.
+     */
+    public int get_created() {
+        return this.created;
+    }
+
+    public int get_free() {
+        return this.free.size();
+    }
+
+    public int get_in_use() {
+        return this.created - this.free.size();
+    }
+
+    public int get_peak_in_use() {
+        return this.peak_in_use;
+    }
+
+    public long get_acquired() {
+        return this.acquired;
+    }
+
+    public long get_reused() {
+        return this.reused;
+    }
+}
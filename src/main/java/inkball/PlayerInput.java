@@ -0,0 +1,132 @@
+package inkball;
+
+/**
+ * Turns the player's mouse and key input into changes to a GameWorld.
+ * App forwards its input events here, and a ReplayPlayer feeds the same calls
+ * back from a replay file, so a live game and its replay draw, erase and keep
+ * the same lines. Every call is passed on to the recorder first, if there is
+ * one, stamped with the tick the world is at.
+ */
+public class PlayerInput {
+
+    private final GameWorld world;
+    private final ReplayRecorder recorder;
+
+    private Line drawing_line;
+    private boolean is_drawing;
+
+    /**
+     * Constructs a new PlayerInput object.
+     *
+     * @param world    The game world the input applies to.
+     * @param recorder The recorder to record the input with, or null.
+     */
+    public PlayerInput(GameWorld world, ReplayRecorder recorder) {
+        this.world = world;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Starts a new player-drawn line. A line still being drawn, such as one
+     * whose release was missed or dropped by a pause, goes back to the pool.
+     *
+     * @param px The previous x-coordinate of the mouse.
+     * @param py The previous y-coordinate of the mouse.
+     * @param x  The x-coordinate of the mouse.
+     * @param y  The y-coordinate of the mouse.
+     */
+    public void press(int px, int py, int x, int y) {
+        if (recorder != null) {
+            recorder.press(world.get_tick_count(), px, py, x, y);
+        }
+        if (!world.get_is_paused() && !world.get_is_lost()) {
+            is_drawing = true;
+            if (drawing_line != null) {
+                world.get_line_pool().release(drawing_line);
+            }
+            drawing_line = world.new_line();
+            // Notice that: it's previous x and y, current x and y.
+            drawing_line.add_segment(px, py, x, y);
+        }
+    }
+
+    /**
+     * Extends the line being drawn, removing the lines it crosses when erasing.
+     *
+     * @param px    The previous x-coordinate of the mouse.
+     * @param py    The previous y-coordinate of the mouse.
+     * @param x     The x-coordinate of the mouse.
+     * @param y     The y-coordinate of the mouse.
+     * @param erase Whether the line is used as an eraser.
+     */
+    public void drag(int px, int py, int x, int y, boolean erase) {
+        if (recorder != null) {
+            recorder.drag(world.get_tick_count(), px, py, x, y, erase);
+        }
+        if (!world.get_is_paused() && is_drawing && !world.get_is_lost()) {
+            drawing_line.add_segment(px, py, x, y);
+            if (erase) {
+                world.remove_intersecting_lines(drawing_line);
+            }
+        }
+    }
+
+    /**
+     * Ends the line being drawn.
+     *
+     * @param keep Whether the line is added to the board.
+     */
+    public void release(boolean keep) {
+        if (recorder != null) {
+            recorder.release(world.get_tick_count(), keep);
+        }
+        if (!world.get_is_paused() && is_drawing && !world.get_is_lost()) {
+            is_drawing = false;
+            if (keep) {
+                world.add_line(drawing_line);
+            } else {
+                world.get_line_pool().release(drawing_line);
+            }
+            drawing_line = null;
+        }
+    }
+
+    /**
+     * Pauses or resumes the game. A line being drawn is dropped on pausing.
+     */
+    public void toggle_pause() {
+        if (recorder != null) {
+            recorder.event(world.get_tick_count(), ReplayRecorder.PAUSE);
+        }
+        world.set_is_paused(!world.get_is_paused());
+        if (world.get_is_paused()) {
+            is_drawing = false;
+        }
+    }
+
+    /**
+     * Drops the line being drawn.
+     */
+    public void cancel() {
+        if (drawing_line != null) {
+            world.get_line_pool().release(drawing_line);
+        }
+        is_drawing = false;
+        drawing_line = null;
+    }
+
+    /**
+     * The getter methods for the line being drawn.
+     */
+    public boolean get_is_drawing() {
+        return this.is_drawing;
+    }
+
+    public Line get_drawing_line() {
+        return this.drawing_line;
+    }
+
+    public ReplayRecorder get_recorder() {
+        return this.recorder;
+    }
+}
@@ -0,0 +1,229 @@
+package inkball;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Plays a replay file back headlessly, as fast as the CPU allows.
+ * The game is rebuilt from the seed and configuration in the replay, and the
+ * recorded input is fed to a PlayerInput at the tick it arrived at. Changes of
+ * level made by the sketch are made at their recorded tick too. The player
+ * stops at the END event, or after the last event of a recording that was cut
+ * short. Each tick is timed, so the slowest ticks of a reported session can be
+ * found and reproduced.
+ *
+ * <pre>
+ * gradle replay -PreplayArgs="session.ikr"
+ * </pre>
+ */
+public class ReplayPlayer {
+
+    private final DataInputStream in;
+    private final String config_path;
+    private final long seed;
+
+    private long next_tick;
+    private int next_type;
+    private boolean finished;
+
+    private GameWorld world;
+    private PlayerInput input;
+
+    private long events;
+    private long slowest_tick = -1;
+    private long slowest_nanos;
+    private long total_nanos;
+
+    /**
+     * Constructs a new ReplayPlayer object and reads the header of the replay.
+     *
+     * @param in The stream to read the replay from.
+     * @throws IOException If the stream is not a replay this version can play.
+     */
+    public ReplayPlayer(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        if (this.in.readInt() != ReplayRecorder.MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != ReplayRecorder.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        this.seed = this.in.readLong();
+        this.config_path = this.in.readUTF();
+        read_event();
+    }
+
+    /**
+     * Constructs a new ReplayPlayer object reading from a file.
+     *
+     * @param file The replay file.
+     * @throws IOException If the file cannot be read or is not a replay.
+     */
+    public ReplayPlayer(File file) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    /**
+     * Plays the whole replay in a new world built from the configuration at the
+     * recorded path.
+     *
+     * @return The world as it was at the end of the recording.
+     * @throws IOException If the replay cannot be read.
+     */
+    public GameWorld play() throws IOException {
+        return play(config_path);
+    }
+
+    /**
+     * Plays the whole replay in a new world built from the given configuration.
+     *
+     * @param config_path The path to the configuration file to play with.
+     * @return The world as it was at the end of the recording.
+     * @throws IOException If the replay cannot be read.
+     */
+    public GameWorld play(String config_path) throws IOException {
+        world = new GameWorld(config_path, seed);
+        input = new PlayerInput(world, null);
+        world.load_level();
+
+        try {
+            while (true) {
+                while (!finished && next_tick == world.get_tick_count()) {
+                    apply();
+                    read_event();
+                }
+                if (finished) {
+                    break;
+                }
+                if (next_tick < world.get_tick_count()) {
+                    throw new IOException("Replay event for tick " + next_tick + " is out of order");
+                }
+                long start = System.nanoTime();
+                world.tick();
+                long nanos = System.nanoTime() - start;
+                total_nanos += nanos;
+                if (nanos > slowest_nanos) {
+                    slowest_nanos = nanos;
+                    slowest_tick = world.get_tick_count() - 1;
+                }
+            }
+        } finally {
+            in.close();
+        }
+        return world;
+    }
+
+    /**
+     * Applies the event that is due, the way App does.
+     */
+    private void apply() throws IOException {
+        events++;
+        switch (next_type) {
+            case ReplayRecorder.PRESS:
+                input.press(in.readShort(), in.readShort(), in.readShort(), in.readShort());
+                break;
+            case ReplayRecorder.DRAG:
+                input.drag(in.readShort(), in.readShort(), in.readShort(), in.readShort(),
+                        in.readUnsignedByte() == ReplayRecorder.FLAG);
+                break;
+            case ReplayRecorder.RELEASE:
+                input.release(in.readUnsignedByte() == ReplayRecorder.FLAG);
+                break;
+            case ReplayRecorder.PAUSE:
+                input.toggle_pause();
+                break;
+            case ReplayRecorder.RESTART:
+                world.load_level();
+                world.reset_score();
+                input.cancel();
+                break;
+            case ReplayRecorder.ADVANCE:
+                if (world.advance_level()) {
+                    world.load_level();
+                    input.cancel();
+                }
+                break;
+            case ReplayRecorder.END:
+                finished = true;
+                break;
+            default:
+                throw new IOException("Unknown replay event " + next_type);
+        }
+    }
+
+    /**
+     * Reads the tick and type of the next event. A recording cut short ends
+     * after its last complete event.
+     */
+    private void read_event() throws IOException {
+        if (finished) {
+            return;
+        }
+        long delta = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) {
+                finished = true;
+                return;
+            }
+            delta |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        int type = in.read();
+        if (type < 0) {
+            finished = true;
+            return;
+        }
+        next_tick += delta;
+        next_type = type;
+    }
+
+    /**
+     * The getter methods for the replay and the statistics of playing it.
+     */
+    public long get_seed() {
+        return this.seed;
+    }
+
+    public String get_config_path() {
+        return this.config_path;
+    }
+
+    public long get_events() {
+        return this.events;
+    }
+
+    public long get_slowest_tick() {
+        return this.slowest_tick;
+    }
+
+    public long get_slowest_nanos() {
+        return this.slowest_nanos;
+    }
+
+    public long get_total_nanos() {
+        return this.total_nanos;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayPlayer <replay file> [config file]");
+            System.exit(1);
+        }
+        ReplayPlayer player = new ReplayPlayer(new File(args[0]));
+        GameWorld world = args.length > 1 ? player.play(args[1]) : player.play();
+
+        long ticks = world.get_tick_count();
+        double seconds = player.get_total_nanos() / 1e9;
+        System.out.printf(Locale.ROOT, "seed %d, %d events, %d ticks (%.1f s of play)%n", player.get_seed(),
+                player.get_events(), ticks, (double) ticks / GameWorld.TICK_RATE);
+        System.out.printf(Locale.ROOT, "level %d, score %.1f, time left %d%n", world.get_level_number() + 1,
+                world.get_score(), world.get_time());
+        System.out.printf(Locale.ROOT, "simulated in %.3f s (%.0f ticks/s), slowest tick %d took %.3f ms%n",
+                seconds, ticks / Math.max(seconds, 1e-9), player.get_slowest_tick(),
+                player.get_slowest_nanos() / 1e6);
+    }
+}
@@ -0,0 +1,201 @@
+package inkball;
+
+import java.io.*;
+
+/**
+ * Records the player's input to a compact binary replay file.
+ * The game is deterministic given the seed of its GameWorld and the tick at
+ * which each input arrived, so that is all a replay holds. The file starts
+ * with a header of the magic number, the format version, the seed and the
+ * configuration path. Each event that follows is the number of ticks since the
+ * previous event as an unsigned varint, a type byte and the event's payload,
+ * with coordinates as 16-bit values. A mouse drag is therefore 10 bytes at
+ * most. An END event marks a recording that was closed properly.
+ * A recorder that fails to write prints the error and stops recording, so the
+ * game itself is never interrupted.
+ */
+public class ReplayRecorder implements Closeable {
+
+    // "IKRP"
+    public static final int MAGIC = 0x494B5250;
+    public static final int VERSION = 1;
+
+    public static final int PRESS = 1;
+    public static final int DRAG = 2;
+    public static final int RELEASE = 3;
+    public static final int PAUSE = 4;
+    public static final int RESTART = 5;
+    public static final int ADVANCE = 6;
+    public static final int END = 7;
+
+    // set on DRAG when the drag erases lines, and on RELEASE when the line is kept.
+    public static final int FLAG = 1;
+
+    private DataOutputStream out;
+    private long last_tick;
+    private long events;
+
+    /**
+     * Constructs a new ReplayRecorder object and writes the header.
+     *
+     * @param out         The stream to write the replay to.
+     * @param config_path The path to the configuration file of the game.
+     * @param seed        The seed of the game's GameWorld.
+     * @throws IOException If the header cannot be written.
+     */
+    public ReplayRecorder(OutputStream out, String config_path, long seed) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeLong(seed);
+        this.out.writeUTF(config_path);
+    }
+
+    /**
+     * Constructs a new ReplayRecorder object writing to a file.
+     *
+     * @param file        The file to write the replay to.
+     * @param config_path The path to the configuration file of the game.
+     * @param seed        The seed of the game's GameWorld.
+     * @throws IOException If the file cannot be created.
+     */
+    public ReplayRecorder(File file, String config_path, long seed) throws IOException {
+        this(new FileOutputStream(file), config_path, seed);
+    }
+
+    /**
+     * Records the mouse being pressed, starting a line.
+     *
+     * @param tick The tick the world is at.
+     * @param px   The previous x-coordinate of the mouse.
+     * @param py   The previous y-coordinate of the mouse.
+     * @param x    The x-coordinate of the mouse.
+     * @param y    The y-coordinate of the mouse.
+     */
+    public void press(long tick, int px, int py, int x, int y) {
+        try {
+            begin(tick, PRESS);
+            write_point(px, py, x, y);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records the mouse being dragged, extending the line.
+     *
+     * @param tick  The tick the world is at.
+     * @param px    The previous x-coordinate of the mouse.
+     * @param py    The previous y-coordinate of the mouse.
+     * @param x     The x-coordinate of the mouse.
+     * @param y     The y-coordinate of the mouse.
+     * @param erase Whether the drag erases the lines it crosses.
+     */
+    public void drag(long tick, int px, int py, int x, int y, boolean erase) {
+        try {
+            begin(tick, DRAG);
+            write_point(px, py, x, y);
+            out.writeByte(erase ? FLAG : 0);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records the mouse being released, ending the line.
+     *
+     * @param tick The tick the world is at.
+     * @param keep Whether the line is added to the board.
+     */
+    public void release(long tick, boolean keep) {
+        try {
+            begin(tick, RELEASE);
+            out.writeByte(keep ? FLAG : 0);
+            out.flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records an event without a payload: PAUSE, RESTART or ADVANCE.
+     *
+     * @param tick The tick the world is at.
+     * @param type The type of the event.
+     */
+    public void event(long tick, int type) {
+        try {
+            begin(tick, type);
+            out.flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Marks the end of the recording at the given tick and closes the file.
+     *
+     * @param tick The tick the world is at.
+     */
+    public void finish(long tick) {
+        if (out == null) {
+            return;
+        }
+        event(tick, END);
+        close();
+    }
+
+    @Override
+    public void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        out = null;
+    }
+
+    private void begin(long tick, int type) throws IOException {
+        if (out == null) {
+            throw new IOException("Replay recording was stopped");
+        }
+        long delta = tick - last_tick;
+        // unsigned LEB128: seven bits per byte, low bits first.
+        while ((delta & ~0x7FL) != 0) {
+            out.writeByte((int) (delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        out.writeByte((int) delta);
+        out.writeByte(type);
+        last_tick = tick;
+        events++;
+    }
+
+    private void write_point(int px, int py, int x, int y) throws IOException {
+        out.writeShort(px);
+        out.writeShort(py);
+        out.writeShort(x);
+        out.writeShort(y);
+    }
+
+    private void fail(IOException e) {
+        if (out != null) {
+            e.printStackTrace();
+            close();
+        }
+    }
+
+    /**
+     * The getter methods for the recording.
+     */
+    public boolean is_recording() {
+        return out != null;
+    }
+
+    public long get_events() {
+        return this.events;
+    }
+}
@@ -1,42 +1,52 @@
-package inkball;
-
-import java.util.*;
-
-/**
- * Represents a ball spawner in the game.
- */
-public class Spawner extends Sprite {
-
-    public static Random random = new Random();
-    public App app;
-
-    /**
-     * Constructs a new Spawner object.
-     *
-     * @param x    The x-coordinate of the spawner.
-     * @param y    The y-coordinate of the spawner.
-     * @param type The type of the spawner.
-     * @param app  The main App instance.
-     */
-    public Spawner(int x, int y, char type, App app) {
-        super(x, y, type);
-        this.app = app.get_this();
-    }
-
-    /**
-     * Spawns a new ball and adds it to the game.
-     *
-     * @param balls            The list of active balls in the game.
-     * @param candidates_balls The list of candidate balls to spawn from.
-     */
-    public void spawnBalls(ArrayList<Ball> balls, ArrayList<Ball> candidates_balls) {
-        int ball_x = X_pixel_to_index(this.x);
-        int ball_y = Y_pixel_to_index(this.y);
-
-        Ball b = new Ball(ball_x, ball_y, candidates_balls.get(0).get_type(), app);
-        // Seems like there is a more efficient way to do this: Ball b =
-        // candidates_balls.get(0);
-        balls.add(b);
-        candidates_balls.remove(0);
-    }
-}
+package inkball;
+
+import java.util.*;
+
+/**
+ * Represents a ball spawner in the game.
+ */
+public class Spawner extends Sprite {
+
+    public GameWorld world;
+
+    /**
+     * Constructs a new Spawner object.
+     *
+     * @param x    The x-coordinate of the spawner.
+     * @param y    The y-coordinate of the spawner.
+     * @param type The type of the spawner.
+     * @param world The game world the spawner belongs to.
+     */
+    public Spawner(int x, int y, char type, GameWorld world) {
+        super(x, y, type);
+        this.world = world;
+    }
+
+    /**
+     * Constructs a new Spawner object in the world of the given App.
+     *
+     * @param x    The x-coordinate of the spawner.
+     * @param y    The y-coordinate of the spawner.
+     * @param type The type of the spawner.
+     * @param app  The main App instance.
+     */
+    public Spawner(int x, int y, char type, App app) {
+        this(x, y, type, app.get_world());
+    }
+
+    /**
+     * Spawns a new ball and adds it to the game. The ball only takes up a slot
+     * in the ball store, so no object is created, and the candidate ball goes
+     * back to the world's pool.
+     *
+     * @param balls            The active balls in the game.
+     * @param candidates_balls The list of candidate balls to spawn from.
+     */
+    public void spawnBalls(BallStore balls, ArrayList<Ball> candidates_balls) {
+        int ball_x = X_pixel_to_index(this.x);
+        int ball_y = Y_pixel_to_index(this.y);
+
+        balls.spawn(ball_x, ball_y, candidates_balls.get(0).get_type(), world);
+        world.get_ball_pool().release(candidates_balls.remove(0));
+    }
+}
@@ -0,0 +1,157 @@
+package inkball;
+
+import processing.core.PApplet;
+import processing.core.PImage;
+
+/**
+ * Loads every sprite image once and hands out the cached copy afterwards.
+ * Sprites are looked up by kind and colour index, so drawing never has to build
+ * a file name or decode a PNG once the cache is warm.
+ */
+public class SpriteCache {
+
+    public static final int COLOURS = BallColour.COUNT;
+
+    private PApplet app;
+
+    private PImage tileImage;
+    private PImage entrypointImage;
+    private PImage[] wallImages = new PImage[COLOURS];
+    private PImage[] brokenWallImages = new PImage[COLOURS];
+    private PImage[] holeImages = new PImage[COLOURS];
+    private PImage[] ballImages = new PImage[COLOURS];
+
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructs a new SpriteCache object.
+     *
+     * @param app The sketch used to load images.
+     */
+    public SpriteCache(PApplet app) {
+        this.app = app;
+    }
+
+    /**
+     * Loads every sprite up front so that no image is loaded while a level is
+     * being played.
+     */
+    public void preload() {
+        tile();
+        entrypoint();
+        for (int i = 0; i < COLOURS; i++) {
+            wall(i);
+            broken_wall(i);
+            hole(i);
+            ball(i);
+        }
+    }
+
+    /**
+     * Converts a colour character ('0' to '4') to a sprite index. Unknown colours
+     * fall back to grey.
+     *
+     * @param type The colour character.
+     * @return The sprite index.
+     */
+    public static int colour_index(char type) {
+        int index = BallColour.index_of(type);
+        if (index < 0 || index >= COLOURS) {
+            return 0;
+        }
+        return index;
+    }
+
+    /**
+     * Loads an image from the classpath, counting the load as a cache miss.
+     *
+     * @param name The resource name of the image.
+     * @return The loaded image.
+     */
+    private PImage load(String name) {
+        misses++;
+        return app.loadImage(name);
+    }
+
+    /**
+     * The getter methods for the cached sprites.
+     */
+    public PImage tile() {
+        if (tileImage == null) {
+            tileImage = load("inkball/tile.png");
+        } else {
+            hits++;
+        }
+        return tileImage;
+    }
+
+    public PImage entrypoint() {
+        if (entrypointImage == null) {
+            entrypointImage = load("inkball/entrypoint.png");
+        } else {
+            hits++;
+        }
+        return entrypointImage;
+    }
+
+    public PImage wall(int index) {
+        if (wallImages[index] == null) {
+            wallImages[index] = load("inkball/wall" + index + ".png");
+        } else {
+            hits++;
+        }
+        return wallImages[index];
+    }
+
+    public PImage broken_wall(int index) {
+        if (brokenWallImages[index] == null) {
+            brokenWallImages[index] = load("inkball/broken_wall" + index + ".png");
+        } else {
+            hits++;
+        }
+        return brokenWallImages[index];
+    }
+
+    public PImage hole(int index) {
+        if (holeImages[index] == null) {
+            holeImages[index] = load("inkball/hole" + index + ".png");
+        } else {
+            hits++;
+        }
+        return holeImages[index];
+    }
+
+    public PImage ball(int index) {
+        if (ballImages[index] == null) {
+            ballImages[index] = load("inkball/ball" + index + ".png");
+        } else {
+            hits++;
+        }
+        return ballImages[index];
+    }
+
+    public PImage ball(char type) {
+        return ball(colour_index(type));
+    }
+
+    public PImage hole(char type) {
+        return hole(colour_index(type));
+    }
+
+    /**
+     * The getter methods for the cache counters.
+     */
+    public long get_hits() {
+        return this.hits;
+    }
+
+    public long get_misses() {
+        return this.misses;
+    }
+
+    public void reset_counters() {
+        this.hits = 0;
+        this.misses = 0;
+    }
+}
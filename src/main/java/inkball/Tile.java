@@ -9,6 +9,7 @@ public class Tile extends Sprite {
     public boolean is_hole;
     public boolean is_ball;
     public boolean is_spawner;
+    public boolean is_breakable;
 
     /**
      * Constructs a new Tile object.
@@ -22,6 +23,24 @@ public class Tile extends Sprite {
         is_wall = type == 'X';
     }
 
+    /**
+     * Resets a pooled tile to the state of a newly constructed one.
+     *
+     * @param index_x The x-index of the tile on the game grid.
+     * @param index_y The y-index of the tile on the game grid.
+     * @param type    The type of the tile.
+     */
+    public void reset(int index_x, int index_y, char type) {
+        this.x = X_index_to_pixel(index_x);
+        this.y = Y_index_to_pixel(index_y);
+        this.type = type;
+        this.is_wall = type == 'X';
+        this.is_hole = false;
+        this.is_ball = false;
+        this.is_spawner = false;
+        this.is_breakable = false;
+    }
+
     /**
      * Sets this tile as a hole.
      */
@@ -36,6 +55,14 @@ public class Tile extends Sprite {
         this.is_wall = true;
     }
 
+    /**
+     * Sets this tile as a wall that breaks after a few hits.
+     */
+    public void set_breakable() {
+        this.is_wall = true;
+        this.is_breakable = true;
+    }
+
     /**
      * Sets this tile as containing a ball.
      */
@@ -0,0 +1,197 @@
+package inkball;
+
+import java.util.*;
+
+/**
+ * A distance field over the board, built once when a level is read.
+ * The board is divided into square samples of SAMPLE_SIZE pixels. For every
+ * sample the field keeps how far its closest point is from the nearest wall
+ * tile, and which wall tile that is, so a wall that breaks only updates the
+ * samples it was nearest to. A ball whose distance to travel plus radius is
+ * below the distance of the sample it is in cannot touch a wall, so its wall
+ * check is a single array read.
+ */
+public class WallField {
+
+    public static final int SAMPLE_SIZE = 8;
+    public static final int SAMPLES_PER_TILE = App.CELLSIZE / SAMPLE_SIZE;
+
+    private final int cols;
+    private final int rows;
+
+    private Tile[][] tiles;
+    private float[] distances;
+    private Tile[] nearest_walls;
+
+    /**
+     * Constructs a new WallField object over a board without walls.
+     */
+    public WallField() {
+        this.cols = App.Tile_SIZE * SAMPLES_PER_TILE;
+        this.rows = App.Tile_SIZE * SAMPLES_PER_TILE;
+        this.tiles = new Tile[App.Tile_SIZE][App.Tile_SIZE];
+        this.distances = new float[cols * rows];
+        this.nearest_walls = new Tile[cols * rows];
+        Arrays.fill(distances, Float.MAX_VALUE);
+    }
+
+    /**
+     * Rebuilds the field for the given board.
+     *
+     * @param tiles The 2D array of tiles representing the game board.
+     */
+    public void build(Tile[][] tiles) {
+        this.tiles = tiles;
+
+        ArrayList<Tile> walls = new ArrayList<>();
+        for (Tile[] row : tiles) {
+            for (Tile tile : row) {
+                if (tile != null && tile.is_wall) {
+                    walls.add(tile);
+                }
+            }
+        }
+
+        for (int row = 0; row < rows; row++) {
+            float min_y = App.TOPBAR + row * SAMPLE_SIZE;
+            for (int col = 0; col < cols; col++) {
+                float min_x = col * SAMPLE_SIZE;
+                float best = Float.MAX_VALUE;
+                Tile nearest = null;
+                for (int i = 0; i < walls.size(); i++) {
+                    Tile wall = walls.get(i);
+                    float distance = box_distance(min_x, min_y, min_x + SAMPLE_SIZE, min_y + SAMPLE_SIZE,
+                            wall.x, wall.y, wall.x + App.CELLSIZE, wall.y + App.CELLSIZE);
+                    if (distance < best) {
+                        best = distance;
+                        nearest = wall;
+                    }
+                }
+                distances[row * cols + col] = best;
+                nearest_walls[row * cols + col] = nearest;
+            }
+        }
+    }
+
+    /**
+     * Takes over a field built for another board with the same walls, pointing
+     * it at the tiles of the given board.
+     *
+     * @param other The field to copy.
+     * @param tiles The board with the same layout as the other field's.
+     */
+    public void copy_from(WallField other, Tile[][] tiles) {
+        this.tiles = tiles;
+        System.arraycopy(other.distances, 0, distances, 0, distances.length);
+        for (int i = 0; i < nearest_walls.length; i++) {
+            Tile wall = other.nearest_walls[i];
+            nearest_walls[i] = wall == null ? null : tiles[wall.getGridY()][wall.getGridX()];
+        }
+    }
+
+    /**
+     * Takes a wall that broke out of the field. Only the samples that had it as
+     * their nearest wall change. Each of them looks for its new nearest wall in
+     * rings of tiles around it, stopping once no tile further out can be closer,
+     * so the rest of the field is left as it is.
+     *
+     * @param wall The tile that is no longer a wall.
+     * @return The number of samples that changed.
+     */
+    public int remove_wall(Tile wall) {
+        int changed = 0;
+        for (int sample = 0; sample < nearest_walls.length; sample++) {
+            if (nearest_walls[sample] == wall) {
+                find_nearest(sample / cols, sample % cols);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Finds the nearest wall of one sample again. Ties go to the wall that comes
+     * first row by row, as in build().
+     *
+     * @param row The row of the sample.
+     * @param col The column of the sample.
+     */
+    private void find_nearest(int row, int col) {
+        float min_x = col * SAMPLE_SIZE;
+        float min_y = App.TOPBAR + row * SAMPLE_SIZE;
+        int tile_row = row / SAMPLES_PER_TILE;
+        int tile_col = col / SAMPLES_PER_TILE;
+        float best = Float.MAX_VALUE;
+        Tile nearest = null;
+        int nearest_index = Integer.MAX_VALUE;
+
+        // a tile in ring n is at least n - 1 tiles away from the sample.
+        for (int ring = 0; ring < App.Tile_SIZE && (ring - 1) * App.CELLSIZE <= best; ring++) {
+            for (int i = tile_row - ring; i <= tile_row + ring; i++) {
+                if (i < 0 || i >= tiles.length) {
+                    continue;
+                }
+                int step = i == tile_row - ring || i == tile_row + ring ? 1 : Math.max(1, 2 * ring);
+                for (int j = tile_col - ring; j <= tile_col + ring; j += step) {
+                    if (j < 0 || j >= tiles[i].length) {
+                        continue;
+                    }
+                    Tile tile = tiles[i][j];
+                    if (tile == null || !tile.is_wall) {
+                        continue;
+                    }
+                    float distance = box_distance(min_x, min_y, min_x + SAMPLE_SIZE, min_y + SAMPLE_SIZE,
+                            tile.x, tile.y, tile.x + App.CELLSIZE, tile.y + App.CELLSIZE);
+                    int index = i * tiles[i].length + j;
+                    if (distance < best || (distance == best && index < nearest_index)) {
+                        best = distance;
+                        nearest = tile;
+                        nearest_index = index;
+                    }
+                }
+            }
+        }
+        distances[row * cols + col] = best;
+        nearest_walls[row * cols + col] = nearest;
+    }
+
+    /**
+     * Returns the distance between the closest points of two boxes, or 0 if they
+     * overlap or touch.
+     */
+    private static float box_distance(float min_x1, float min_y1, float max_x1, float max_y1,
+            float min_x2, float min_y2, float max_x2, float max_y2) {
+        float dx = Math.max(0, Math.max(min_x2 - max_x1, min_x1 - max_x2));
+        float dy = Math.max(0, Math.max(min_y2 - max_y1, min_y1 - max_y2));
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Returns how far any point of the sample containing a position is from the
+     * nearest wall. Positions off the board are treated as touching a wall.
+     *
+     * @param x The x-coordinate in pixels.
+     * @param y The y-coordinate in pixels.
+     * @return The distance in pixels.
+     */
+    public float distance(float x, float y) {
+        int sample = sample_of(x, y);
+        return sample < 0 ? 0 : distances[sample];
+    }
+
+    private int sample_of(float x, float y) {
+        int col = (int) Math.floor(x / SAMPLE_SIZE);
+        int row = (int) Math.floor((y - App.TOPBAR) / SAMPLE_SIZE);
+        if (col < 0 || col >= cols || row < 0 || row >= rows) {
+            return -1;
+        }
+        return row * cols + col;
+    }
+
+    /**
+     * The getter method for the board the field was built for.
+     */
+    public Tile[][] get_tiles() {
+        return this.tiles;
+    }
+}
@@ -0,0 +1,147 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.*;
+
+/**
+ * Tests for bouncing balls off each other, without opening a sketch window.
+ */
+public class BallColliderTest {
+
+    private GameWorld world;
+    private BallStore balls;
+    private BallCollider collider;
+
+    @BeforeEach
+    public void setUp() {
+        world = new GameWorld("config.json", 1);
+        world.load_level();
+        balls = world.get_balls();
+        balls.clear();
+        collider = new BallCollider();
+    }
+
+    private int place(float x, float y, float speed_x, float speed_y) {
+        int slot = balls.spawn(0, 0, '1', world);
+        Ball ball = balls.get(slot);
+        ball.set_x((int) x);
+        ball.set_y((int) y);
+        balls.set_speed(slot, speed_x, speed_y);
+        return slot;
+    }
+
+    /**
+     * Tests that two balls meeting head on swap their speeds, and that the
+     * handles see the new speeds.
+     */
+    @Test
+    void head_on_test() {
+        int a = place(200, 300, 2, 0);
+        int b = place(220, 300, -2, 0);
+
+        assertEquals(1, collider.collide(balls));
+
+        assertEquals(-2, balls.get_speed_x(a), 0.001);
+        assertEquals(2, balls.get_speed_x(b), 0.001);
+        assertEquals(2, balls.get(b).get_speed_x(), 0.001);
+        assertEquals(0, balls.get_speed_y(a), 0.001);
+    }
+
+    /**
+     * Tests that a ball is still compared with the balls after one whose left
+     * edge is out of its reach when they all start in the same pixel, so the
+     * order of the sweep is that of the exact left edges.
+     */
+    @Test
+    void same_pixel_order_test() {
+        int a = place(180, 300, 1, 0);
+        int b = place(204, 400, 0, 0);
+        int c = place(204, 300, -1, 0);
+        balls.view(a).frac_x = 0.5f;
+        balls.write(a, balls.view(a));
+        balls.view(b).frac_x = 0.9f;
+        balls.write(b, balls.view(b));
+        balls.view(c).frac_x = 0.1f;
+        balls.write(c, balls.view(c));
+
+        assertEquals(1, collider.collide(balls));
+        assertEquals(-1, balls.get_speed_x(a), 0.001);
+        assertEquals(1, balls.get_speed_x(c), 0.001);
+        assertEquals(0, balls.get_speed_x(b), 0.001);
+    }
+
+    /**
+     * Tests that the sort key orders floats as they compare.
+     */
+    @Test
+    void sortable_bits_test() {
+        float[] values = { -300.5f, -12, -0.25f, 0, 0.25f, 204.1f, 204.9f, 1e9f };
+        for (int i = 1; i < values.length; i++) {
+            assertTrue(BallCollider.sortable_bits(values[i - 1]) < BallCollider.sortable_bits(values[i]));
+        }
+    }
+
+    /**
+     * Tests that touching balls moving apart, and balls that do not touch, are
+     * left alone.
+     */
+    @Test
+    void no_bounce_test() {
+        place(200, 300, -2, 0);
+        place(220, 300, 2, 0);
+        place(300, 300, 2, 0);
+        place(330, 300, -2, 0);
+
+        assertEquals(0, collider.collide(balls));
+    }
+
+    /**
+     * Tests that the sweep finds exactly the touching, closing pairs a brute
+     * force check finds, and that every bounce keeps the total momentum.
+     */
+    @Test
+    void sweep_matches_brute_force_test() {
+        Random random = new Random(5);
+        for (int i = 0; i < 400; i++) {
+            place(40 + random.nextInt(480), 100 + random.nextInt(480), random.nextFloat() * 4 - 2,
+                    random.nextFloat() * 4 - 2);
+        }
+
+        int expected = 0;
+        for (int a = 0; a < balls.size(); a++) {
+            for (int b = a + 1; b < balls.size(); b++) {
+                float dx = balls.get_center_x(b) - balls.get_center_x(a);
+                float dy = balls.get_center_y(b) - balls.get_center_y(a);
+                float closing = (balls.get_speed_x(a) - balls.get_speed_x(b)) * dx
+                        + (balls.get_speed_y(a) - balls.get_speed_y(b)) * dy;
+                if (dx * dx + dy * dy < 24 * 24 && closing > 0) {
+                    expected++;
+                }
+            }
+        }
+        double momentum_x = 0;
+        double momentum_y = 0;
+        for (int slot = 0; slot < balls.size(); slot++) {
+            momentum_x += balls.get_speed_x(slot);
+            momentum_y += balls.get_speed_y(slot);
+        }
+
+        int bounced = collider.collide(balls);
+
+        // a pair can stop closing in after an earlier bounce of one of its
+        // balls, so the sweep bounces at most as many pairs.
+        assertTrue(bounced > 0 && bounced <= expected, bounced + " of " + expected);
+        double after_x = 0;
+        double after_y = 0;
+        for (int slot = 0; slot < balls.size(); slot++) {
+            after_x += balls.get_speed_x(slot);
+            after_y += balls.get_speed_y(slot);
+        }
+        assertEquals(momentum_x, after_x, 0.01);
+        assertEquals(momentum_y, after_y, 0.01);
+    }
+}
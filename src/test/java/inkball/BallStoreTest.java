@@ -0,0 +1,163 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Tests for the ball store, on the first level without opening a sketch window.
+ */
+public class BallStoreTest {
+
+    private GameWorld world;
+    private BallStore balls;
+
+    @BeforeEach
+    public void setUp() {
+        world = new GameWorld("config.json");
+        world.load_level();
+        balls = world.get_balls();
+        balls.clear();
+    }
+
+    /**
+     * Tests that a spawned ball starts on its tile with a diagonal speed.
+     */
+    @Test
+    void spawn_test() {
+        int slot = balls.spawn(5, 3, '2', world);
+
+        assertEquals(0, slot);
+        assertEquals(1, balls.size());
+        assertEquals(5 * 32, balls.get_x(slot));
+        assertEquals(64 + 3 * 32, balls.get_y(slot));
+        assertEquals(2, Math.abs(balls.get_speed_x(slot)));
+        assertEquals(2, Math.abs(balls.get_speed_y(slot)));
+        assertEquals('2', balls.get_type(slot));
+        assertEquals(24, balls.get_size(slot));
+    }
+
+    /**
+     * Tests that removing a ball moves the last ball into its slot, and that the
+     * handles follow their balls.
+     */
+    @Test
+    void swap_remove_test() {
+        for (int i = 0; i < 4; i++) {
+            balls.spawn(1 + i, 1, (char) ('0' + i), world);
+        }
+        Ball first = balls.get(0);
+        Ball last = balls.get(3);
+
+        balls.remove(0);
+
+        assertEquals(3, balls.size());
+        assertEquals('3', balls.get_type(0));
+        assertSame(last, balls.get(0));
+        assertEquals('1', balls.get_type(1));
+
+        // the removed handle keeps working as a ball off the board.
+        first.set_x(123);
+        assertEquals(123, first.x);
+        assertEquals(4 * 32, balls.get_x(0));
+    }
+
+    /**
+     * Tests that changes made through a handle reach the store, including moves.
+     */
+    @Test
+    void handle_writes_back_test() {
+        Ball ball = new Ball(5, 5, '1', world);
+        balls.add(ball);
+        ball.set_speed_x(2);
+        ball.set_speed_y(-2);
+
+        ball.move(world);
+
+        assertEquals(ball.x, balls.get_x(0));
+        assertEquals(ball.y, balls.get_y(0));
+        assertEquals(5 * 32 + 2, balls.get_x(0));
+        assertEquals(64 + 5 * 32 - 2, balls.get_y(0));
+        assertEquals(-2, balls.get_speed_y(0), 0.01);
+    }
+
+    /**
+     * Tests that balls without a handle are moved by the world through the store.
+     */
+    @Test
+    void tick_moves_stored_balls_test() {
+        balls.spawn(5, 5, '1', world);
+        balls.spawn(8, 12, '2', world);
+        int x0 = balls.get_x(0);
+        int x1 = balls.get_x(1);
+        float speed0 = balls.get_speed_x(0);
+        float speed1 = balls.get_speed_x(1);
+
+        world.tick();
+
+        assertEquals(x0 + (int) speed0, balls.get_x(0));
+        assertEquals(x1 + (int) speed1, balls.get_x(1));
+        assertEquals(x0, balls.get_render_x(0, 0), 0.01);
+    }
+
+    /**
+     * Tests that a stored ball captured by the wrong hole goes back to the queue
+     * as a ball of its own rather than as the store's shared cursor.
+     */
+    @Test
+    void wrong_hole_requeues_copy_test() {
+        world.get_candidates_balls().clear();
+        Hole hole = world.get_holes().get(1);
+        assertEquals('1', hole.get_hole_type());
+        int slot = balls.spawn(0, 0, '2', world);
+        Ball ball = balls.view(slot);
+        ball.set_x(hole.x + 32 - 12);
+        ball.set_y(hole.y + 32 - 12);
+        ball.set_speed_x(0);
+        ball.set_speed_y(0);
+        balls.spawn(3, 3, '3', world);
+
+        for (int i = 0; i < 10 && world.get_candidates_balls().size() == 0; i++) {
+            world.tick();
+        }
+
+        assertEquals(1, world.get_candidates_balls().size());
+        Ball candidate = world.get_candidates_balls().get(0);
+        assertEquals('2', candidate.get_type());
+        assertFalse(balls.is_cursor(candidate));
+        assertEquals(1, balls.size());
+        assertEquals('3', balls.get_type(0));
+    }
+
+    /**
+     * Tests that spawning and removing balls does not allocate once the arrays
+     * have grown.
+     */
+    @Test
+    void spawn_allocation_test() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < 1000; i++) {
+            balls.spawn(5, 5, '1', world);
+        }
+        balls.clear();
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 1000; i++) {
+                balls.spawn(5, 5, '1', world);
+            }
+            while (balls.size() > 0) {
+                balls.remove(0);
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(allocated < 1024, "Spawning allocated " + allocated + " bytes");
+    }
+}
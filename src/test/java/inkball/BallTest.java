@@ -0,0 +1,114 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+
+/**
+ * Tests for the swept wall collisions of a ball, on the first level without
+ * opening a sketch window.
+ */
+public class BallTest {
+
+    private GameWorld world;
+    private Tile[][] tiles;
+    private WallField walls;
+
+    @BeforeEach
+    public void setUp() {
+        world = new GameWorld("config.json");
+        world.load_level();
+        world.get_balls().clear();
+        tiles = world.get_tiles();
+        walls = world.get_wall_field();
+    }
+
+    private Ball ball(int x, int y, int speed_x, int speed_y) {
+        Ball ball = new Ball(0, 0, '0', world);
+        ball.set_x(x);
+        ball.set_y(y);
+        ball.set_speed_x(speed_x);
+        ball.set_speed_y(speed_y);
+        return ball;
+    }
+
+    /**
+     * Tests that a ball moving further than a tile in one move bounces off a
+     * single wall tile instead of passing through it.
+     */
+    @Test
+    void fast_ball_does_not_tunnel_test() {
+        tiles[3][9] = new Tile(9, 3, 'X');
+        walls.build(tiles);
+        Ball ball = ball(236, 64 + 3 * 32 + 4, 100, 0);
+
+        ball.WallSweep(walls, world);
+
+        assertEquals(-100, ball.get_speed_x(), 0.01);
+        assertEquals(0, ball.get_speed_y(), 0.01);
+        // 28 pixels up to the wall, then 72 pixels back.
+        assertEquals(192, ball.x, 1);
+    }
+
+    /**
+     * Tests that a fast ball stays inside the outer walls however long it runs.
+     */
+    @Test
+    void fast_ball_stays_on_board_test() {
+        Ball ball = ball(40, 64 + 2 * 32, 45, 0);
+        for (int i = 0; i < 200; i++) {
+            ball.WallSweep(walls, world);
+            assertTrue(ball.x >= 32 && ball.x + 24 <= 17 * 32, "Ball left the board at x=" + ball.x);
+        }
+    }
+
+    /**
+     * Tests that a ball driven diagonally into a corner bounces off both walls
+     * in the same move.
+     */
+    @Test
+    void corner_bounce_test() {
+        Ball ball = ball(36, 64 + 36, -10, -10);
+
+        ball.WallSweep(walls, world);
+
+        assertEquals(10, ball.get_speed_x(), 0.01);
+        assertEquals(10, ball.get_speed_y(), 0.01);
+        assertTrue(ball.x >= 32);
+        assertTrue(ball.y >= 64 + 32);
+    }
+
+    /**
+     * Tests that a ball sliding along a wall is not deflected by the seams
+     * between wall tiles.
+     */
+    @Test
+    void slide_along_wall_test() {
+        Ball ball = ball(64, 64 + 32, 2, 0);
+        for (int i = 0; i < 100; i++) {
+            ball.WallSweep(walls, world);
+        }
+
+        assertEquals(2, ball.get_speed_x(), 0.01);
+        assertEquals(0, ball.get_speed_y(), 0.01);
+        assertEquals(264, ball.x);
+        assertEquals(96, ball.y);
+    }
+
+    /**
+     * Tests that a ball takes on the colour of a coloured wall it bounces off.
+     */
+    @Test
+    void coloured_wall_test() {
+        Ball ball = ball(8 * 32 + 4, 64 + 32 + 10, 0, -3);
+
+        for (int i = 0; i < 10; i++) {
+            ball.WallSweep(walls, world);
+        }
+
+        assertEquals('2', ball.get_type());
+        assertEquals(3, ball.get_speed_y(), 0.01);
+        assertEquals(world.getScoreHoleCapture('2'), ball.get_increase_score());
+    }
+}
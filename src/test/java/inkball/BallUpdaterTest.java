@@ -0,0 +1,87 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * Tests that moving balls in parallel gives the same game as moving them one
+ * by one.
+ */
+public class BallUpdaterTest {
+
+    private static final int BALLS = 700;
+    private static final int LINES = 60;
+
+    /**
+     * Builds the first level with many balls and lines, all placed from the
+     * given seed.
+     */
+    private static GameWorld crowded_world(long seed, int parallel_threshold) {
+        GameWorld world = new GameWorld("config.json");
+        world.load_level();
+        world.get_random().setSeed(seed);
+        world.set_parallel_threshold(parallel_threshold);
+        world.set_time(1000);
+        world.get_balls().clear();
+
+        Random random = new Random(seed);
+        Tile[][] tiles = world.get_tiles();
+        while (world.get_balls().size() < BALLS) {
+            int col = 1 + random.nextInt(App.Tile_SIZE - 2);
+            int row = 1 + random.nextInt(App.Tile_SIZE - 2);
+            if (!tiles[row][col].is_wall) {
+                world.get_balls().spawn(col, row, (char) ('0' + random.nextInt(5)), world);
+            }
+        }
+        for (int i = 0; i < LINES; i++) {
+            Line line = new Line();
+            int x = 48 + random.nextInt(480);
+            int y = 112 + random.nextInt(480);
+            for (int k = 0; k < 20; k++) {
+                int nx = Math.max(40, Math.min(536, x + random.nextInt(41) - 20));
+                int ny = Math.max(104, Math.min(600, y + random.nextInt(41) - 20));
+                line.add_segment(x, y, nx, ny);
+                x = nx;
+                y = ny;
+            }
+            world.add_line(line);
+        }
+        return world;
+    }
+
+    /**
+     * Tests that the parallel update matches the sequential one tick for tick,
+     * including captures, re-queued balls, scores and removed lines.
+     */
+    @Test
+    void parallel_matches_sequential_test() {
+        GameWorld sequential = crowded_world(11, Integer.MAX_VALUE);
+        GameWorld parallel = crowded_world(11, 0);
+
+        for (int tick = 0; tick < 400; tick++) {
+            sequential.tick();
+            parallel.tick();
+
+            BallStore a = sequential.get_balls();
+            BallStore b = parallel.get_balls();
+            assertEquals(a.size(), b.size(), "Ball count differs at tick " + tick);
+            for (int slot = 0; slot < a.size(); slot++) {
+                assertEquals(a.get_x(slot), b.get_x(slot), "x of slot " + slot + " at tick " + tick);
+                assertEquals(a.get_y(slot), b.get_y(slot), "y of slot " + slot + " at tick " + tick);
+                assertEquals(a.get_speed_x(slot), b.get_speed_x(slot));
+                assertEquals(a.get_speed_y(slot), b.get_speed_y(slot));
+                assertEquals(a.get_type(slot), b.get_type(slot));
+            }
+            assertEquals(sequential.get_score(), parallel.get_score());
+            assertEquals(sequential.get_lines().size(), parallel.get_lines().size());
+            assertEquals(sequential.get_candidates_balls().size(), parallel.get_candidates_balls().size());
+        }
+
+        // the run has to have exercised captures and line bounces to mean much.
+        assertTrue(parallel.get_balls().size() < BALLS);
+        assertTrue(parallel.get_lines().size() < LINES);
+        assertTrue(parallel.get_candidates_balls().size() > 0);
+    }
+}
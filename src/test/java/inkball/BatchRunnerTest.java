@@ -0,0 +1,69 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.util.*;
+
+/**
+ * Tests for the headless batch runner.
+ */
+public class BatchRunnerTest {
+
+    /**
+     * Tests that a batch gives the same statistics on one thread as on several.
+     */
+    @Test
+    void same_seed_same_stats_test() throws Exception {
+        int[] levels = { 0, 1 };
+        ArrayList<BatchRunner.LevelStats> one = new BatchRunner("config.json", 1).run(levels, 6, "deflect", 3);
+        ArrayList<BatchRunner.LevelStats> four = new BatchRunner("config.json", 4).run(levels, 6, "deflect", 3);
+
+        StringWriter a = new StringWriter();
+        StringWriter b = new StringWriter();
+        BatchRunner.write_csv(one, a);
+        BatchRunner.write_csv(four, b);
+        assertEquals(a.toString(), b.toString());
+        assertEquals(3, a.toString().split("\n").length);
+        assertTrue(a.toString().startsWith("level,policy,games,wins,"));
+    }
+
+    /**
+     * Tests that a game without any lines runs to the end of the level.
+     */
+    @Test
+    void play_without_lines_test() {
+        BatchRunner.GameResult result = BatchRunner.play("config.json", 0, "none", 7);
+
+        if (result.won) {
+            assertTrue(result.ticks < 120 * GameWorld.TICK_RATE);
+        } else {
+            assertEquals(0, result.time_left);
+        }
+        assertEquals(0, result.lines_left);
+    }
+
+    /**
+     * Tests the nearest rank percentiles of the statistics.
+     */
+    @Test
+    void level_stats_test() {
+        BatchRunner.GameResult[] results = new BatchRunner.GameResult[4];
+        results[0] = new BatchRunner.GameResult(true, 100, 30, 10, 0);
+        results[1] = new BatchRunner.GameResult(false, -20, 3600, 0, 2);
+        results[2] = new BatchRunner.GameResult(true, 300, 90, 20, 0);
+        results[3] = new BatchRunner.GameResult(false, 40, 3600, 0, 2);
+
+        BatchRunner.LevelStats stats = new BatchRunner.LevelStats(0, "none", results);
+
+        assertEquals(0.5, stats.get_win_rate());
+        assertEquals(105, stats.score_mean, 0.001);
+        assertEquals(-20, stats.get_score_percentile(0));
+        assertEquals(40, stats.get_score_percentile(50));
+        assertEquals(300, stats.get_score_percentile(100));
+        assertEquals(2, stats.clear_time_mean, 0.001);
+        assertEquals(1, stats.get_clear_time_percentile(50), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> BatchRunner.policy_of("mouse"));
+    }
+}
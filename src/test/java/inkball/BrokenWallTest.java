@@ -0,0 +1,91 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Tests for breakable walls, on the first level with the two walls at row 6,
+ * columns 5 and 6 made breakable.
+ */
+public class BrokenWallTest {
+
+    @TempDir
+    Path dir;
+
+    private GameWorld world;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        List<String> layout = Files.readAllLines(Paths.get("level1.txt"));
+        layout.set(6, "X    ox   XH1    X");
+        Path level = dir.resolve("level1.txt");
+        Files.write(level, layout);
+
+        String config = new String(Files.readAllBytes(Paths.get("config.json")), StandardCharsets.UTF_8)
+                .replace("\"level1.txt\"", "\"" + level.toString().replace("\\", "/") + "\"");
+        Path config_file = dir.resolve("config.json");
+        Files.write(config_file, config.getBytes(StandardCharsets.UTF_8));
+
+        world = new GameWorld(config_file.toString(), 1);
+        world.load_level();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        CompiledLevel.clear_cache();
+    }
+
+    /**
+     * Tests that breakable walls are read from the layout as walls of their
+     * colour.
+     */
+    @Test
+    void layout_test() {
+        Tile orange = world.get_tiles()[6][5];
+        Tile grey = world.get_tiles()[6][6];
+        assertTrue(orange.is_wall && orange.is_breakable);
+        assertEquals('1', orange.get_type());
+        assertEquals('X', grey.get_type());
+        assertNotNull(world.get_breakable_wall(6, 6));
+        assertNull(world.get_breakable_wall(7, 6));
+        assertEquals('X', Broken_Wall.wall_type('x'));
+        assertEquals(0, Broken_Wall.wall_type('X'));
+    }
+
+    /**
+     * Tests that a wall breaks at the end of the tick of its last hit, and that
+     * the updated wall field is the same as one built from scratch.
+     */
+    @Test
+    void break_test() {
+        Tile tile = world.get_tiles()[6][5];
+        for (int i = 0; i < Broken_Wall.HITS_TO_BREAK; i++) {
+            world.hit_breakable(tile);
+        }
+        assertTrue(world.get_tiles()[6][5].is_wall);
+
+        world.tick();
+
+        assertFalse(world.get_tiles()[6][5].is_wall);
+        assertNull(world.get_breakable_wall(6, 5));
+        assertEquals(1, world.get_broken_walls().size());
+
+        WallField walls = world.get_wall_field();
+        WallField rebuilt = new WallField();
+        rebuilt.build(world.get_tiles());
+        for (int y = App.TOPBAR; y < App.TOPBAR + App.Tile_SIZE * App.CELLSIZE; y += WallField.SAMPLE_SIZE) {
+            for (int x = 0; x < App.Tile_SIZE * App.CELLSIZE; x += WallField.SAMPLE_SIZE) {
+                assertEquals(rebuilt.distance(x, y), walls.distance(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Tests for compiling, mapping and caching level layouts.
+ */
+public class CompiledLevelTest {
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    public void tearDown() {
+        CompiledLevel.clear_cache();
+    }
+
+    /**
+     * Tests that the text layout is split into tiles and tables.
+     */
+    @Test
+    void parse_test() throws IOException {
+        CompiledLevel level = CompiledLevel.parse(new File("level1.txt"));
+
+        assertEquals(18, level.get_rows());
+        assertEquals(18, level.get_cols());
+        assertEquals('X', level.get_tile(0, 0));
+        assertEquals('2', level.get_tile(0, 7));
+        assertEquals('H', level.get_tile(1, 15));
+        assertEquals(' ', level.get_tile(1, 16));
+        assertArrayEquals(new int[] { 6, 13, '2' }, level.get_balls());
+        assertArrayEquals(new int[] { 5, 8, 'X' }, level.get_spawners());
+        assertEquals(4 * 3, level.get_holes().length);
+        assertEquals('0', level.get_holes()[2]);
+    }
+
+    /**
+     * Tests that a compiled file maps back to the same level.
+     */
+    @Test
+    void compile_and_map_test() throws IOException {
+        File text = dir.resolve("level2.txt").toFile();
+        Files.copy(Paths.get("level2.txt"), text.toPath());
+        CompiledLevel parsed = CompiledLevel.parse(text);
+        File compiled = CompiledLevel.compiled_file(text);
+        parsed.write(compiled);
+
+        CompiledLevel mapped = CompiledLevel.map(compiled);
+
+        assertEquals(parsed.get_rows(), mapped.get_rows());
+        assertEquals(parsed.get_cols(), mapped.get_cols());
+        for (int row = 0; row < parsed.get_rows(); row++) {
+            for (int col = 0; col < parsed.get_cols(); col++) {
+                assertEquals(parsed.get_tile(row, col), mapped.get_tile(row, col));
+            }
+        }
+        assertArrayEquals(parsed.get_balls(), mapped.get_balls());
+        assertArrayEquals(parsed.get_holes(), mapped.get_holes());
+        assertArrayEquals(parsed.get_spawners(), mapped.get_spawners());
+
+        Files.write(compiled.toPath(), new byte[] { 1, 2, 3 });
+        assertThrows(IOException.class, () -> CompiledLevel.map(compiled));
+    }
+
+    /**
+     * Tests that loads are served from the cache until the file changes.
+     */
+    @Test
+    void cache_test() throws IOException {
+        File text = dir.resolve("level1.txt").toFile();
+        Files.copy(Paths.get("level1.txt"), text.toPath());
+
+        CompiledLevel first = CompiledLevel.load(text.getPath());
+        assertSame(first, CompiledLevel.load(text.getPath()));
+
+        File compiled = CompiledLevel.compiled_file(text);
+        first.write(compiled);
+        compiled.setLastModified(text.lastModified() + 1000);
+        CompiledLevel mapped = CompiledLevel.load(text.getPath());
+        assertNotSame(first, mapped);
+        assertSame(mapped, CompiledLevel.load(text.getPath()));
+        assertSame(mapped.get_wall_field(), CompiledLevel.load(text.getPath()).get_wall_field());
+    }
+
+    /**
+     * Tests that a restarted level reuses its tiles, reset to the same layout,
+     * and gets a wall field pointing at them.
+     */
+    @Test
+    void restart_reuses_tiles_test() {
+        GameWorld world = new GameWorld("config.json", 1);
+        world.load_level();
+        char type = world.get_tiles()[0][7].get_type();
+        int created = world.get_tile_pool().get_created();
+        world.load_level();
+        Tile[][] after = world.get_tiles();
+
+        assertEquals(created, world.get_tile_pool().get_created());
+        assertEquals(type, after[0][7].get_type());
+        assertTrue(after[0][7].is_wall);
+        assertFalse(after[1][1].is_wall || after[1][1].is_hole);
+        // the field only finds samples nearest to a wall by the tile of this board.
+        assertTrue(world.get_wall_field().remove_wall(after[0][0]) > 0);
+        assertEquals(4, world.get_holes().size());
+        assertEquals(1, world.get_balls().size());
+    }
+}
@@ -0,0 +1,107 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Tests for the frame metrics, which do not need a sketch window.
+ */
+public class FrameMetricsTest {
+
+    /**
+     * Tests that durations land in power-of-two buckets.
+     */
+    @Test
+    void bucket_of_test() {
+        assertEquals(0, FrameMetrics.bucket_of(0));
+        assertEquals(0, FrameMetrics.bucket_of(1));
+        assertEquals(1, FrameMetrics.bucket_of(2));
+        assertEquals(1, FrameMetrics.bucket_of(3));
+        assertEquals(10, FrameMetrics.bucket_of(1024));
+        assertEquals(FrameMetrics.BUCKETS - 1, FrameMetrics.bucket_of(Long.MAX_VALUE));
+    }
+
+    /**
+     * Tests the mean, maximum and percentile estimates of a phase.
+     */
+    @Test
+    void percentile_test() {
+        FrameMetrics metrics = new FrameMetrics(1000, null);
+        for (int i = 0; i < 95; i++) {
+            metrics.record(FrameMetrics.BALLS, 1000);
+        }
+        for (int i = 0; i < 5; i++) {
+            metrics.record(FrameMetrics.BALLS, 100000);
+        }
+
+        assertEquals(100, metrics.get_count(FrameMetrics.BALLS));
+        assertEquals(100000, metrics.get_max(FrameMetrics.BALLS));
+        assertEquals(5950, metrics.mean(FrameMetrics.BALLS), 1e-9);
+        // 1000 ns is in the bucket from 512 to 1023 ns.
+        assertEquals(1023, metrics.percentile(FrameMetrics.BALLS, 0.5));
+        assertEquals(1023, metrics.percentile(FrameMetrics.BALLS, 0.95));
+        assertEquals(100000, metrics.percentile(FrameMetrics.BALLS, 0.99));
+        assertEquals(0, metrics.percentile(FrameMetrics.LINES, 0.5));
+    }
+
+    /**
+     * Tests that each phase is timed from its own begin, so a phase that
+     * encloses another is not cut short by it.
+     */
+    @Test
+    void nested_phase_test() throws InterruptedException {
+        FrameMetrics metrics = new FrameMetrics(1000, null);
+        metrics.begin(FrameMetrics.BOARD);
+        Thread.sleep(5);
+        metrics.begin(FrameMetrics.HOLES);
+        metrics.end(FrameMetrics.HOLES);
+        metrics.end(FrameMetrics.BOARD);
+
+        assertTrue(metrics.get_last(FrameMetrics.BOARD) >= 5000000);
+        assertTrue(metrics.get_last(FrameMetrics.HOLES) < metrics.get_last(FrameMetrics.BOARD));
+    }
+
+    /**
+     * Tests that a full window is dumped as one CSV row and one JSON line and
+     * that the statistics are reset afterwards.
+     */
+    @Test
+    void dump_window_test(@TempDir Path dir) throws IOException {
+        FrameMetrics metrics = new FrameMetrics(3, dir.toFile());
+        for (int window = 0; window < 2; window++) {
+            for (int frame = 0; frame < 3; frame++) {
+                metrics.begin_frame();
+                for (int phase = 0; phase < FrameMetrics.FRAME; phase++) {
+                    metrics.begin(phase);
+                    metrics.end(phase);
+                }
+                metrics.end_frame(4, 2, 37);
+            }
+        }
+
+        assertEquals(0, metrics.get_frames());
+        assertEquals(0, metrics.get_count(FrameMetrics.FRAME));
+        assertEquals(37, metrics.get_segments());
+
+        List<String> csv = Files.readAllLines(dir.resolve("metrics.csv"));
+        assertEquals(3, csv.size());
+        String[] header = csv.get(0).split(",");
+        String[] row = csv.get(1).split(",");
+        assertEquals(6 + 4 * FrameMetrics.PHASES, header.length);
+        assertEquals(header.length, row.length);
+        assertEquals("3", row[1]);
+        assertEquals("4", row[2]);
+        assertEquals("37", row[4]);
+
+        List<String> json = Files.readAllLines(dir.resolve("metrics.jsonl"));
+        assertEquals(2, json.size());
+        assertTrue(json.get(0).startsWith("{\"window\":0,\"frames\":3,\"balls\":4,\"lines\":2,\"segments\":37"));
+        assertTrue(json.get(1).startsWith("{\"window\":1,"));
+        assertTrue(json.get(0).contains("\"drawBalls\":{\"count\":3"));
+    }
+}
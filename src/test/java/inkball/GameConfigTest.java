@@ -0,0 +1,132 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Tests for the parsed configuration and its reloading.
+ */
+public class GameConfigTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Tests that the configuration is parsed into levels and score tables.
+     */
+    @Test
+    void parse_test() {
+        GameConfig config = GameConfig.load("config.json");
+
+        assertEquals(3, config.get_level_count());
+        GameConfig.LevelConfig level = config.get_level(1);
+        assertEquals("level2.txt", level.get_layout());
+        assertEquals(180, level.get_time());
+        assertEquals(6, level.get_spawn_interval());
+        assertEquals(1.2f, level.get_scoreIncreaseFromHoleCaptureModifier());
+        assertEquals("30024120", level.get_balls());
+        assertEquals(100, config.getScoreHoleCapture('4'));
+        assertEquals(25, config.getScoreWrongHole('2'));
+    }
+
+    /**
+     * Tests that colour names and characters map to the same table index, and
+     * that a colour missing from the score tables scores 0.
+     */
+    @Test
+    void colour_table_test() {
+        assertEquals(BallColour.BLUE, BallColour.of_name("Blue"));
+        assertEquals(BallColour.YELLOW, BallColour.of_name("purple"));
+        assertEquals(BallColour.GREEN, BallColour.of_type('3'));
+        assertEquals(BallColour.ORANGE.ordinal(), BallColour.index_of(BallColour.ORANGE.get_type()));
+
+        processing.data.JSONObject json = new processing.data.JSONObject();
+        json.setJSONArray("levels", new processing.data.JSONArray());
+        processing.data.JSONObject increase = new processing.data.JSONObject();
+        increase.setInt("green", 40);
+        json.setJSONObject("score_increase_from_hole_capture", increase);
+        json.setJSONObject("score_decrease_from_wrong_hole", new processing.data.JSONObject());
+        GameConfig config = GameConfig.parse(json);
+
+        assertEquals(40, config.getScoreHoleCapture('3'));
+        assertEquals(0, config.getScoreHoleCapture('1'));
+        assertEquals(0, config.getScoreWrongHole('3'));
+    }
+
+    /**
+     * Tests that worlds share one parse of the file, also across restarts.
+     */
+    @Test
+    void shared_parse_test() {
+        GameWorld a = new GameWorld("config.json", 1);
+        GameWorld b = new GameWorld("config.json", 2);
+        a.load_level();
+        b.load_level();
+        GameConfig first = a.get_config();
+        a.load_level();
+
+        assertSame(first, a.get_config());
+        assertSame(first, b.get_config());
+    }
+
+    /**
+     * Tests that saving the file swaps in a new configuration, which a running
+     * world picks up on its next tick, rescoring the balls it already has.
+     */
+    @Test
+    void hot_reload_test() throws Exception {
+        Path file = dir.resolve("config.json");
+        String json = new String(Files.readAllBytes(Paths.get("config.json")), StandardCharsets.UTF_8);
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        for (String level : new String[] { "level1.txt", "level2.txt", "level3.txt" }) {
+            Files.copy(Paths.get(level), dir.resolve(level));
+        }
+        String path = file.toString();
+        String layout = dir.resolve("level1.txt").toString().replace("\\", "/");
+        json = json.replace("\"level1.txt\"", "\"" + layout + "\"");
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+
+        GameWorld world = new GameWorld(path, 3);
+        world.load_level();
+        assertEquals(1.0f, world.get_scoreIncreaseFromHoleCaptureModifier());
+        Ball blue = world.get_balls().get(0);
+        assertEquals('2', blue.get_type());
+        assertEquals(50, blue.getIncreaseScore());
+
+        try (ConfigWatcher watcher = new ConfigWatcher(path)) {
+            // a half-written file is skipped.
+            Files.write(file, "{ \"levels\": [".getBytes(StandardCharsets.UTF_8));
+            String tuned = json.replace("\"spawn_interval\": 10", "\"spawn_interval\": 4")
+                    .replace("\"score_increase_from_hole_capture_modifier\": 1.0",
+                            "\"score_increase_from_hole_capture_modifier\": 2.5")
+                    .replace("\"blue\": 50", "\"blue\": 80").replace("\"blue\": 25", "\"blue\": 30");
+            Files.write(file, tuned.getBytes(StandardCharsets.UTF_8));
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (GameConfig.current(path).get().get_level(0).get_spawn_interval() != 4
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(4, GameConfig.current(path).get().get_level(0).get_spawn_interval());
+            assertTrue(watcher.get_reloads() > 0);
+        }
+
+        world.tick();
+        assertEquals(2.5f, world.get_scoreIncreaseFromHoleCaptureModifier());
+        assertEquals(4, world.get_spawn_timer());
+        assertSame(GameConfig.current(path).get(), world.get_config());
+        assertEquals(80, blue.getIncreaseScore());
+        assertEquals(30, blue.getDecreaseScore());
+        assertEquals(80, world.get_balls().view(0).getIncreaseScore());
+        assertEquals(80, world.get_candidates_balls().get(0).getIncreaseScore());
+        for (Ball candidate : world.get_candidates_balls()) {
+            assertEquals(world.getScoreHoleCapture(candidate.get_type()), candidate.getIncreaseScore());
+        }
+    }
+}
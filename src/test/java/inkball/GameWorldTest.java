@@ -0,0 +1,110 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+
+/**
+ * Tests for GameWorld that step the game without opening a sketch window.
+ */
+public class GameWorldTest {
+
+    private GameWorld world;
+
+    @BeforeEach
+    public void setUp() {
+        world = new GameWorld("config.json");
+        world.load_level();
+    }
+
+    /**
+     * Tests that the first level is loaded without a PApplet.
+     */
+    @Test
+    void load_level_test() {
+        assertEquals(1, world.get_spawner().size());
+        assertEquals(1, world.get_balls().size());
+        assertEquals(4, world.get_holes().size());
+        assertEquals(6, world.get_candidates_balls().size());
+        assertEquals(0, world.get_score());
+        assertEquals(120, world.get_time());
+        assertTrue(world.get_tiles()[0][0].is_wall);
+    }
+
+    /**
+     * Tests that stepping the world counts time down and spawns the next
+     * candidate ball once the spawn interval has elapsed.
+     */
+    @Test
+    void step_spawns_and_counts_down_test() {
+        int initialTotal = world.get_balls().size() + world.get_candidates_balls().size();
+        for (int i = 0; i < GameWorld.TICK_RATE * 11; i++) {
+            world.tick();
+        }
+
+        assertEquals(109, world.get_time(), 1);
+        assertEquals(9.0f, world.get_spawn_interval(), 0.1f,
+                "The spawn interval should have restarted after the first spawn");
+        assertTrue(world.get_balls().size() + world.get_candidates_balls().size() <= initialTotal);
+    }
+
+    /**
+     * Tests that a paused world does not move balls or count time down.
+     */
+    @Test
+    void paused_world_does_not_step_test() {
+        world.set_is_paused(true);
+        Ball ball = world.get_balls().get(0);
+        int x = ball.x;
+        int y = ball.y;
+
+        for (int i = 0; i < 100; i++) {
+            world.tick();
+        }
+
+        assertEquals(x, ball.x);
+        assertEquals(y, ball.y);
+        assertEquals(120, world.get_time());
+    }
+
+    /**
+     * Tests that a ball is drawn between its previous and current position.
+     */
+    @Test
+    void render_interpolation_test() {
+        Ball ball = world.get_balls().get(0);
+        ball.set_speed_x(2);
+        ball.set_speed_y(-2);
+        int x = ball.x;
+        int y = ball.y;
+
+        world.tick();
+
+        assertEquals(x, ball.get_render_x(0), 0.01);
+        assertEquals(x + 1, ball.get_render_x(0.5f), 0.01);
+        assertEquals(y - 2, ball.get_render_y(1), 0.01);
+        assertEquals(1, world.get_tick_count());
+    }
+
+    /**
+     * Tests that a won level converts the remaining time into score.
+     */
+    @Test
+    void win_animation_test() {
+        world.get_balls().clear();
+        world.get_candidates_balls().clear();
+        world.set_time(5);
+        world.time_check();
+        assertTrue(world.get_is_won());
+
+        for (int i = 0; i < GameWorld.TICK_RATE; i++) {
+            world.tick();
+        }
+
+        assertEquals(0, world.get_time());
+        assertEquals(5, world.get_score(), 0.01);
+        assertTrue(world.advance_level());
+        assertEquals(1, world.get_level_number());
+    }
+}
@@ -0,0 +1,132 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.*;
+
+/**
+ * Tests for the hole index, on the first level without opening a sketch window.
+ */
+public class HoleIndexTest {
+
+    private GameWorld world;
+    private HoleIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        world = new GameWorld("config.json");
+        world.load_level();
+        index = world.get_hole_index();
+    }
+
+    /**
+     * Tests that every point within reach of a hole finds it in its cell, and
+     * that a cell far from every hole is empty.
+     */
+    @Test
+    void cells_cover_attraction_test() {
+        for (Hole hole : world.get_holes()) {
+            for (int dy = -31; dy <= 31; dy += 2) {
+                for (int dx = -31; dx <= 31; dx += 2) {
+                    if (dx * dx + dy * dy >= 32 * 32) {
+                        continue;
+                    }
+                    int cell = index.cell_of(hole.x + 32 + dx, hole.y + 32 + dy);
+                    boolean found = false;
+                    for (int k = 0; k < index.get_cell_size(cell); k++) {
+                        found |= index.get_cell_hole(cell, k) == hole;
+                    }
+                    assertTrue(found, "Hole missing at offset " + dx + "," + dy);
+                }
+            }
+        }
+
+        ArrayList<Hole> none = new ArrayList<>();
+        index.build(none);
+        assertEquals(0, index.get_cell_size(index.cell_of(300, 300)));
+    }
+
+    /**
+     * Tests that a ball next to a hole is pulled in and captured through the
+     * index.
+     */
+    @Test
+    void capture_test() {
+        Hole hole = world.get_holes().get(0);
+        Ball ball = new Ball(0, 0, hole.get_hole_type(), world);
+        ball.set_x(hole.x + 32 - 12 + 10);
+        ball.set_y(hole.y + 32 - 12);
+        ball.set_speed_x(0);
+        ball.set_speed_y(0);
+        float score = world.get_score();
+
+        ball.enter_hole(index, world);
+        assertTrue(ball.get_speed_x() < 0);
+        for (int i = 0; i < 20 && !ball.in_hole_flag; i++) {
+            ball.enter_hole(index, world);
+        }
+
+        assertTrue(ball.in_hole_flag);
+        assertTrue(world.get_score() > score);
+    }
+
+    /**
+     * Tests that a ball near a hole shrinks by the time it spent there, that a
+     * ball getting away from a hole returns to its full size, and that a ball
+     * held within the capture radius is captured once it has shrunk enough.
+     */
+    @Test
+    void shrink_test() {
+        Hole hole = world.get_holes().get(0);
+        Ball ball = new Ball(0, 0, hole.get_hole_type(), world);
+        ball.set_x(hole.x + 32 - 12 + 5);
+        ball.set_y(hole.y + 32 - 12);
+
+        ball.enter_hole(index, world);
+        assertEquals(Ball.size_at(Ball.SHRINK_RATE * GameWorld.TICK + Ball.CAPTURE_SHRINK_RATE * GameWorld.TICK),
+                ball.ballSize, 0.001);
+        ball.set_x(hole.x + 32 - 12 + 40);
+        ball.enter_hole(index, world);
+        assertEquals(Ball.BALL_SIZE, ball.ballSize);
+
+        ball.set_x(hole.x + 32 - 12 + 5);
+        float size = Ball.BALL_SIZE;
+        for (int i = 0; i < 20 && !ball.in_hole_flag; i++) {
+            ball.enter_hole(index, world);
+            assertTrue(ball.ballSize < size);
+            size = ball.ballSize;
+        }
+        assertTrue(ball.in_hole_flag);
+    }
+
+    /**
+     * Tests that the closed form for the ticks to a capture matches the ticks a
+     * ball held within the capture radius takes, from the start and from part
+     * way.
+     */
+    @Test
+    void ticks_to_capture_test() {
+        Hole hole = world.get_holes().get(0);
+        Ball ball = new Ball(0, 0, hole.get_hole_type(), world);
+        ball.set_x(hole.x + 32 - 12 + 5);
+        ball.set_y(hole.y + 32 - 12);
+
+        int expected = Ball.ticks_to_capture(0);
+        int midway = -1;
+        int ticks = 0;
+        while (!ball.in_hole_flag && ticks < 1000) {
+            if (ticks == expected / 2) {
+                midway = Ball.ticks_to_capture(ball.shrink);
+            }
+            ball.enter_hole(index, world);
+            ticks++;
+        }
+        assertTrue(expected > 1);
+        assertEquals(expected, ticks);
+        assertEquals(expected - expected / 2, midway);
+        assertEquals(1, Ball.ticks_to_capture(Ball.CAPTURE_SHRINK));
+    }
+}
@@ -0,0 +1,76 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the queue carrying mouse input to the game.
+ */
+public class InputQueueTest {
+
+    /**
+     * Tests that queued strokes only reach the world when drained, in order,
+     * and that a full queue drops events instead of blocking.
+     */
+    @Test
+    void drain_test() {
+        GameWorld world = new GameWorld("config.json", 5);
+        world.load_level();
+        PlayerInput input = new PlayerInput(world, null);
+        InputQueue queue = new InputQueue(4);
+
+        assertTrue(queue.offer(ReplayRecorder.PRESS, 100, 200, 110, 200, false));
+        assertTrue(queue.offer(ReplayRecorder.DRAG, 110, 200, 120, 210, false));
+        assertTrue(queue.offer(ReplayRecorder.RELEASE, 0, 0, 0, 0, true));
+        assertEquals(0, world.get_lines().size());
+
+        assertEquals(3, queue.drain(input));
+        assertEquals(1, world.get_lines().size());
+        assertEquals(2, world.get_lines().get(0).get_segment_count());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(ReplayRecorder.DRAG, i, 0, i, 0, false));
+        }
+        assertFalse(queue.offer(ReplayRecorder.DRAG, 9, 0, 9, 0, false));
+        assertEquals(1, queue.get_dropped());
+        assertEquals(4, queue.drain(input));
+        assertEquals(0, queue.get_size());
+        assertThrows(IllegalArgumentException.class, () -> new InputQueue(3));
+    }
+
+    /**
+     * Tests that events offered from another thread arrive complete and in
+     * order while the game thread drains.
+     */
+    @Test
+    void concurrent_test() throws InterruptedException {
+        GameWorld world = new GameWorld("config.json", 5);
+        final int events = 200000;
+        int[] received = new int[1];
+        boolean[] in_order = { true };
+        PlayerInput input = new PlayerInput(world, null) {
+            @Override
+            public void drag(int px, int py, int x, int y, boolean erase) {
+                in_order[0] &= px == received[0] && py == -px && x == px + 1 && y == -x && erase == (px % 2 == 0);
+                received[0]++;
+            }
+        };
+        InputQueue queue = new InputQueue(256);
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < events; i++) {
+                while (!queue.offer(ReplayRecorder.DRAG, i, -i, i + 1, -(i + 1), i % 2 == 0)) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        producer.start();
+        while (received[0] < events) {
+            queue.drain(input);
+        }
+        producer.join();
+
+        assertTrue(in_order[0]);
+        assertEquals(events, received[0]);
+    }
+}
@@ -0,0 +1,187 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+
+/**
+ * Tests for LineList and the ball-line collisions that use it.
+ */
+public class LineListTest {
+
+    private GameWorld world;
+
+    @BeforeEach
+    public void setUp() {
+        world = new GameWorld("config.json");
+        world.load_level();
+        world.get_balls().clear();
+    }
+
+    private static Line line(int x1, int y1, int x2, int y2) {
+        ArrayList<int[]> points = new ArrayList<>();
+        points.add(new int[] { x1, y1, x2, y2 });
+        return new Line(points);
+    }
+
+    /**
+     * Tests that a segment is bucketed near itself only and is removed from the
+     * grid together with its line.
+     */
+    @Test
+    void grid_bucketing_test() {
+        LineList lines = new LineList();
+        Line vertical = line(320, 96, 320, 320);
+        lines.add(vertical);
+
+        int near = lines.cell_of(318, 200);
+        int far = lines.cell_of(100, 600);
+        assertTrue(lines.get_cell_size(near) > 0);
+        assertEquals(vertical, lines.get_cell_line(near, 0));
+        assertEquals(0, lines.get_cell_size(far));
+
+        assertTrue(lines.remove(vertical));
+        assertEquals(0, lines.size());
+        assertEquals(0, lines.get_cell_size(near));
+    }
+
+    /**
+     * Tests that a ball bounces off a line and that the line is removed.
+     */
+    @Test
+    void ball_bounces_off_line_test() {
+        world.add_line(line(320, 96, 320, 320));
+        Ball ball = new Ball(9, 4, '2', world);
+        ball.set_speed_x(2);
+        ball.set_speed_y(0);
+        world.get_balls().add(ball);
+
+        for (int i = 0; i < 20 && ball.get_speed_x() > 0; i++) {
+            ball.move(world);
+        }
+
+        assertEquals(-2, ball.get_speed_x(), 0.01);
+        assertEquals(0, ball.get_speed_y(), 0.01);
+        assertTrue(ball.get_position_x() < 320);
+        assertEquals(0, world.get_lines().size());
+    }
+
+    /**
+     * Tests that when two lines are hit at once, the one drawn first is removed.
+     */
+    @Test
+    void earliest_line_wins_test() {
+        Line first = line(321, 96, 321, 320);
+        Line second = line(320, 96, 320, 320);
+        world.add_line(first);
+        world.add_line(second);
+        Ball ball = new Ball(9, 4, '2', world);
+        ball.set_speed_x(2);
+        ball.set_speed_y(0);
+
+        for (int i = 0; i < 20 && ball.get_speed_x() > 0; i++) {
+            ball.move(world);
+        }
+
+        assertEquals(1, world.get_lines().size());
+        assertSame(second, world.get_lines().get(0));
+    }
+
+    /**
+     * Tests that wall and line collisions do not allocate once warmed up. The
+     * same line is added back after every bounce so that each iteration takes
+     * the full collision path, including the line removal.
+     */
+    @Test
+    void collision_path_allocation_test() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        Line vertical = line(320, 96, 320, 320);
+        Ball ball = new Ball(9, 4, '2', world);
+        LineList lines = world.get_lines();
+        WallField walls = world.get_wall_field();
+
+        for (int i = 0; i < 20000; i++) {
+            bounce_once(ball, vertical, lines, walls);
+        }
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 20000; i++) {
+            bounce_once(ball, vertical, lines, walls);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(allocated < 1024, "Collision path allocated " + allocated + " bytes");
+    }
+
+    private static void bounce_once(Ball ball, Line vertical, LineList lines, WallField walls) {
+        lines.add(vertical);
+        ball.set_x(300);
+        ball.set_y(192);
+        ball.set_speed_x(2);
+        ball.set_speed_y(0);
+        ball.LineBounce(lines);
+        ball.WallSweep(walls, null);
+        assertEquals(0, lines.size());
+    }
+
+    /**
+     * Tests that the pruned intersection test agrees with testing every pair of
+     * segments, on random scribbles of various lengths.
+     */
+    @Test
+    void intersects_matches_brute_force_test() {
+        Random random = new Random(42);
+        int hits = 0;
+        for (int n = 0; n < 500; n++) {
+            int x = random.nextInt(576);
+            int y = 64 + random.nextInt(576);
+            ArrayList<int[]> points1 = scribble(random, 1 + random.nextInt(80), x, y);
+            ArrayList<int[]> points2 = scribble(random, 1 + random.nextInt(80),
+                    x + random.nextInt(201) - 100, y + random.nextInt(201) - 100);
+
+            boolean expected = false;
+            for (int[] a : points1) {
+                for (int[] b : points2) {
+                    expected |= segments_cross(a, b);
+                }
+            }
+
+            hits += expected ? 1 : 0;
+            assertEquals(expected, new Line(points1).intersects(new Line(points2)));
+            assertEquals(expected, new Line(points2).intersects(new Line(points1)));
+        }
+        assertTrue(hits > 50 && hits < 450, "Both outcomes should be covered, got " + hits + " hits");
+    }
+
+    private static ArrayList<int[]> scribble(Random random, int segments, int x, int y) {
+        ArrayList<int[]> points = new ArrayList<>();
+        for (int i = 0; i < segments; i++) {
+            int nx = x + random.nextInt(41) - 20;
+            int ny = y + random.nextInt(41) - 20;
+            points.add(new int[] { x, y, nx, ny });
+            x = nx;
+            y = ny;
+        }
+        return points;
+    }
+
+    private static boolean segments_cross(int[] a, int[] b) {
+        float x1 = a[0], y1 = a[1], x2 = a[2], y2 = a[3];
+        float x3 = b[0], y3 = b[1], x4 = b[2], y4 = b[3];
+        float denom = ((y4 - y3) * (x2 - x1) - (x4 - x3) * (y2 - y1));
+        if (denom == 0) {
+            return false;
+        }
+        float ua = ((x4 - x3) * (y1 - y3) - (y4 - y3) * (x1 - x3)) / denom;
+        float ub = ((x2 - x1) * (y1 - y3) - (y2 - y1) * (x1 - x3)) / denom;
+        return ua >= 0 && ua <= 1 && ub >= 0 && ub <= 1;
+    }
+}
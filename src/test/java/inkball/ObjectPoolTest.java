@@ -0,0 +1,89 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the object pools and their use by the game world.
+ */
+public class ObjectPoolTest {
+
+    /**
+     * Tests that released objects are handed out again and counted.
+     */
+    @Test
+    void acquire_release_test() {
+        ObjectPool<Line> pool = new ObjectPool<>(Line::new);
+        Line first = pool.acquire();
+        Line second = pool.acquire();
+        assertEquals(2, pool.get_created());
+        assertEquals(2, pool.get_in_use());
+
+        pool.release(first);
+        assertSame(first, pool.acquire());
+        assertEquals(2, pool.get_created());
+        assertEquals(1, pool.get_reused());
+
+        // objects the pool did not create do not make it grow.
+        pool.release(second);
+        pool.release(first);
+        pool.release(new Line());
+        assertEquals(2, pool.get_free());
+        assertEquals(0, pool.get_in_use());
+        assertEquals(2, pool.get_peak_in_use());
+    }
+
+    /**
+     * Tests that strokes, spawns and restarts reuse their lines, candidate
+     * balls, ball store and tiles.
+     */
+    @Test
+    void world_reuse_test() {
+        GameWorld world = new GameWorld("config.json", 3);
+        world.load_level();
+        PlayerInput input = new PlayerInput(world, null);
+
+        input.press(100, 200, 110, 200);
+        input.release(false);
+        input.press(100, 200, 120, 210);
+        input.release(true);
+        assertEquals(1, world.get_line_pool().get_created());
+        assertEquals(1, world.get_lines().get(0).get_segment_count());
+
+        int balls = world.get_ball_pool().get_created();
+        world.get_spawner().get(0).spawnBalls(world.get_balls(), world.get_candidates_balls());
+        assertEquals(1, world.get_ball_pool().get_free());
+
+        int tiles = world.get_tile_pool().get_created();
+        BallStore store = world.get_balls();
+        Ball handle = store.get(0);
+        world.load_level();
+        assertSame(store, world.get_balls());
+        assertNotSame(handle, world.get_balls().get(0));
+        assertEquals(balls, world.get_ball_pool().get_created());
+        assertEquals(tiles, world.get_tile_pool().get_created());
+        assertEquals(0, world.get_lines().size());
+        assertEquals(1, world.get_line_pool().get_free());
+        assertEquals(6, world.get_candidates_balls().size());
+        assertEquals(Ball.BALL_SIZE, world.get_candidates_balls().get(0).ballSize);
+    }
+
+    /**
+     * Tests that a press without a release hands its line back on the next
+     * press.
+     */
+    @Test
+    void press_reuses_line_test() {
+        GameWorld world = new GameWorld("config.json", 3);
+        world.load_level();
+        PlayerInput input = new PlayerInput(world, null);
+
+        input.press(100, 200, 110, 200);
+        Line first = input.get_drawing_line();
+        input.press(300, 300, 310, 300);
+        assertSame(first, input.get_drawing_line());
+        assertEquals(1, input.get_drawing_line().get_segment_count());
+        assertEquals(1, world.get_line_pool().get_created());
+        assertEquals(1, world.get_line_pool().get_in_use());
+    }
+}
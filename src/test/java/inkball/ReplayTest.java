@@ -0,0 +1,134 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Tests that a recorded game plays back to the same state headlessly.
+ */
+public class ReplayTest {
+
+    /**
+     * Plays a game with scripted input while recording it, the way App feeds
+     * its input, and returns the world at the end.
+     */
+    private static GameWorld record(long seed, ByteArrayOutputStream bytes) throws IOException {
+        GameWorld world = new GameWorld("config.json", seed);
+        ReplayRecorder recorder = new ReplayRecorder(bytes, "config.json", seed);
+        PlayerInput input = new PlayerInput(world, recorder);
+        world.load_level();
+
+        Random random = new Random(seed);
+        for (int tick = 0; tick < 2400; tick++) {
+            if (tick % 20 == 0) {
+                int x = 64 + random.nextInt(448);
+                int y = 128 + random.nextInt(448);
+                input.press(x, y, x, y);
+                for (int k = 0; k < 5; k++) {
+                    int nx = x + random.nextInt(31) - 15;
+                    int ny = y + random.nextInt(31) - 15;
+                    input.drag(x, y, nx, ny, k == 4 && tick % 100 == 0);
+                    x = nx;
+                    y = ny;
+                }
+                input.release(tick % 60 != 0);
+            }
+            if (tick == 700 || tick == 760) {
+                input.toggle_pause();
+            }
+            if (tick == 1200) {
+                recorder.event(world.get_tick_count(), ReplayRecorder.RESTART);
+                world.load_level();
+                world.reset_score();
+                input.cancel();
+            }
+            if (!world.get_is_paused()) {
+                world.tick();
+            }
+        }
+        recorder.finish(world.get_tick_count());
+        return world;
+    }
+
+    /**
+     * Tests that the replayed world ends with the same balls, lines and score.
+     */
+    @Test
+    void replay_matches_recording_test() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GameWorld recorded = record(42, bytes);
+
+        ReplayPlayer player = new ReplayPlayer(new ByteArrayInputStream(bytes.toByteArray()));
+        GameWorld replayed = player.play();
+
+        assertEquals(42, player.get_seed());
+        assertEquals(recorded.get_tick_count(), replayed.get_tick_count());
+        assertEquals(recorded.get_score(), replayed.get_score());
+        assertEquals(recorded.get_time(), replayed.get_time());
+        assertEquals(recorded.get_lines().size(), replayed.get_lines().size());
+        assertEquals(recorded.get_candidates_balls().size(), replayed.get_candidates_balls().size());
+        BallStore a = recorded.get_balls();
+        BallStore b = replayed.get_balls();
+        assertEquals(a.size(), b.size());
+        for (int slot = 0; slot < a.size(); slot++) {
+            assertEquals(a.get_x(slot), b.get_x(slot));
+            assertEquals(a.get_y(slot), b.get_y(slot));
+            assertEquals(a.get_type(slot), b.get_type(slot));
+        }
+    }
+
+    /**
+     * Tests that a recording cut short still plays up to its last event, and
+     * that drags stay small on disk.
+     */
+    @Test
+    void truncated_replay_test() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GameWorld world = new GameWorld("config.json", 5);
+        ReplayRecorder recorder = new ReplayRecorder(bytes, "config.json", 5);
+        PlayerInput input = new PlayerInput(world, recorder);
+        world.load_level();
+        for (int tick = 0; tick < 90; tick++) {
+            world.tick();
+        }
+        input.press(100, 200, 100, 200);
+        input.drag(100, 200, 110, 205, false);
+        input.release(true);
+        assertEquals(1, world.get_lines().size());
+        recorder.close();
+        // magic, version, seed and path, then 90 ticks fit one varint byte: 10
+        // bytes to press, 11 to drag and 3 to release.
+        int header = 4 + 1 + 8 + 2 + "config.json".length();
+        assertEquals(header + 10 + 11 + 3, bytes.size());
+
+        ReplayPlayer player = new ReplayPlayer(new ByteArrayInputStream(bytes.toByteArray()));
+        GameWorld replayed = player.play();
+
+        assertEquals(3, player.get_events());
+        assertEquals(90, replayed.get_tick_count());
+        assertEquals(1, replayed.get_lines().size());
+    }
+
+    /**
+     * Tests that two worlds with the same seed spawn the same balls.
+     */
+    @Test
+    void same_seed_same_game_test() {
+        GameWorld a = new GameWorld("config.json", 9);
+        GameWorld b = new GameWorld("config.json", 9);
+        a.load_level();
+        b.load_level();
+        for (int tick = 0; tick < 900; tick++) {
+            a.tick();
+            b.tick();
+        }
+        assertEquals(a.get_balls().size(), b.get_balls().size());
+        for (int slot = 0; slot < a.get_balls().size(); slot++) {
+            assertEquals(a.get_balls().get_x(slot), b.get_balls().get_x(slot));
+            assertEquals(a.get_balls().get_speed_y(slot), b.get_balls().get_speed_y(slot));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package inkball;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.Random;
+
+/**
+ * Tests for the wall distance field of the first level.
+ */
+public class WallFieldTest {
+
+    private GameWorld world;
+    private WallField walls;
+
+    @BeforeEach
+    public void setUp() {
+        world = new GameWorld("config.json");
+        world.load_level();
+        walls = world.get_wall_field();
+    }
+
+    /**
+     * Tests the distances next to a wall, in the open and off the board.
+     */
+    @Test
+    void distance_test() {
+        assertEquals(0, walls.distance(33, 64 + 100));
+        assertEquals(0, walls.distance(10, 64 + 100));
+        // the sample from x=64 to 72 starts 32 pixels right of the left wall.
+        assertEquals(32, walls.distance(65, 64 + 100), 0.001);
+        // two tiles below the top wall.
+        assertEquals(64, walls.distance(13 * 32, 64 + 3 * 32), 0.001);
+        assertEquals(0, walls.distance(-5, 100));
+        assertEquals(0, walls.distance(100, 30));
+    }
+
+    /**
+     * Tests that the field never claims more room than there is, by comparing it
+     * with the distance to every wall tile at random points.
+     */
+    @Test
+    void distance_is_lower_bound_test() {
+        Random random = new Random(7);
+        Tile[][] tiles = world.get_tiles();
+        for (int i = 0; i < 2000; i++) {
+            float x = random.nextFloat() * 576;
+            float y = 64 + random.nextFloat() * 576;
+
+            float exact = Float.MAX_VALUE;
+            for (Tile[] row : tiles) {
+                for (Tile tile : row) {
+                    if (tile.is_wall) {
+                        float dx = Math.max(0, Math.max(tile.x - x, x - (tile.x + 32)));
+                        float dy = Math.max(0, Math.max(tile.y - y, y - (tile.y + 32)));
+                        exact = Math.min(exact, (float) Math.sqrt(dx * dx + dy * dy));
+                    }
+                }
+            }
+            assertTrue(walls.distance(x, y) <= exact + 0.001f,
+                    "Field distance " + walls.distance(x, y) + " exceeds " + exact + " at " + x + ", " + y);
+        }
+    }
+}